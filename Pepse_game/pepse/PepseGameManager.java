@@ -7,6 +7,9 @@ import danogl.gui.WindowController;
 import danogl.gui.rendering.Camera;
 import danogl.util.Vector2;
 import pepse.world.Avatar;
+import pepse.world.ChunkManager;
+import pepse.world.ChunkPlan;
+import pepse.world.ObjectPool;
 import pepse.world.Sky;
 import pepse.world.Terrain;
 import pepse.world.daynight.Night;
@@ -15,7 +18,10 @@ import pepse.world.daynight.SunHalo;
 import pepse.world.trees.Tree;
 
 import java.awt.*;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * The main class of the simulator.
@@ -31,11 +37,8 @@ public class PepseGameManager extends GameManager {
     private static final int FRAMERATE = 80;
     private static final float CYCLE_LENGTH = 30;
     private static final float AVATAER_HEIGHT = 80;
+    private static final float LOADED_SCREENS_AROUND_AVATAR = 1; // half a screen beyond each side of it.
 
-    private static final String GROUND_TAG = "ground";
-    private static final String UPPER_GROUND_TAG = "upper_ground";
-    private static final String STEM_TAG = "stem";
-    private static final String LEAF_TAG = "leaf";
     private static final int NIGHT_LAYER = Layer.FOREGROUND;
     private static final int SUN_LAYER = Layer.BACKGROUND + 1;
     private static final int SUN_HALO_LAYER = Layer.BACKGROUND + 10;
@@ -45,16 +48,15 @@ public class PepseGameManager extends GameManager {
     private static final int LEAF_LAYER = Layer.STATIC_OBJECTS + 1;
     private static final int AVATAR_LAYER = Layer.DEFAULT;
     private static final Color SUN_HALO_COLOR = new Color(255, 255, 0, 20);
+    private static final float POOL_STATS_INTERVAL = 30; // seconds between two logs of the pool metrics.
 
     // =============================== fields ===============================
 
-    private Terrain terrain;
     private WindowController windowController;
     private Avatar avatar;
-    private Tree tree;
-    private float curr_place;
-    private float leftTerrianCoord;
-    private float rightTerrianCoord;
+    private ChunkManager chunks;
+    private final List<ObjectPool<?>> pools = new ArrayList<>();
+    private float sincePoolStats = 0;
 
     // =========================== public methods ===========================
 
@@ -80,8 +82,6 @@ public class PepseGameManager extends GameManager {
         this.windowController = windowController;
         this.windowController.setTargetFramerate(FRAMERATE);
 
-        leftTerrianCoord = -windowController.getWindowDimensions().x() / 2;
-        rightTerrianCoord = 3 * windowController.getWindowDimensions().x() / 2;
         // --------------- creating camera --------------
 
         Camera camera = new Camera(Vector2.ZERO,
@@ -93,10 +93,12 @@ public class PepseGameManager extends GameManager {
         Sky.create(gameObjects(), windowController.getWindowDimensions(), Layer.BACKGROUND);
 
         // -------------- creating terrain --------------
-        terrain = new Terrain(
-                gameObjects(), GROUND_LAYER,
+        if (chunks != null) // the game was reset.
+            chunks.shutdown();
+        chunks = new ChunkManager(gameObjects());
+        Terrain terrain = new Terrain(
+                chunks, GROUND_LAYER,
                 windowController.getWindowDimensions(), SEED);
-        terrain.createInRange((int) leftTerrianCoord, (int) rightTerrianCoord);
 
         // -------------- creating night --------------
         Night.create(
@@ -112,11 +114,34 @@ public class PepseGameManager extends GameManager {
         sunHalo.addComponent(deltaTime -> sunHalo.setCenter(sun.getCenter()));
 
         // ------------- creating tree --------------
-        tree = new Tree(gameObjects(), TREE_LAYER, windowController.getWindowDimensions(),
+        Tree tree = new Tree(chunks, TREE_LAYER, windowController.getWindowDimensions(),
                 terrain::groundHeightAt);
-        tree.createInRange(0, (int) windowController.getWindowDimensions().x() + 1);
+        chunks.setGenerator(new ChunkManager.Generator() {
+            @Override
+            public void planInRange(int minX, int maxX, ChunkPlan plan) {
+                terrain.planInRange(minX, maxX, plan);
+                tree.planInRange(minX, maxX, plan);
+            }
+
+            @Override
+            public void create(ChunkPlan plan, int i) {
+                switch (plan.kind(i)) {
+                    case ChunkPlan.GROUND:
+                    case ChunkPlan.UPPER_GROUND:
+                        terrain.create(plan, i);
+                        break;
+                    default:
+                        tree.create(plan, i);
+                        break;
+                }
+            }
+        });
         gameObjects().layers().shouldLayersCollide(UPPER_GROUND_LAYER,
                 LEAF_LAYER, true);
+        pools.clear();
+        pools.addAll(terrain.getPools());
+        pools.addAll(tree.getPools());
+        sincePoolStats = 0;
 
         // ------------- creating avatar -------------
         avatar = Avatar.create(gameObjects(), AVATAR_LAYER,
@@ -124,77 +149,50 @@ public class PepseGameManager extends GameManager {
                         terrain.groundHeightAt(windowController.getWindowDimensions().x() / 2)
                                 - AVATAER_HEIGHT),
                 inputListener, imageReader);
-        curr_place = avatar.getCenter().x();
+        updateChunks();
         camera.setToFollow(avatar, Vector2.ZERO);
         gameObjects().layers().shouldLayersCollide(UPPER_GROUND_LAYER, AVATAR_LAYER
                 , true);
     }
 
     /**
-     * updating the game each time. deletes all the objects that are not currently in the bounds of the
-     * screen and creating the game objects that supposed to be in the screen.
+     * updating the game each time. unloads the chunks of the world that are far from the avatar and loads
+     * the chunks that are supposed to be around it.
      *
      * @param deltaTime each delta time that the game is updating.
      */
     @Override
     public void update(float deltaTime) {
-
         super.update(deltaTime);
-        float delta = curr_place - avatar.getCenter().x();
-        if (Math.abs(delta) < windowController.getWindowDimensions().x() / 2)
-            return;
-        if (delta < 0) { // avatar turned right
-            delete((int) (leftTerrianCoord + delta), (int) (leftTerrianCoord));
-            terrain.createInRange((int) rightTerrianCoord, (int) (rightTerrianCoord - delta));
-            tree.createInRange((int) rightTerrianCoord, (int) (rightTerrianCoord - delta));
-            rightTerrianCoord -= delta;
-            leftTerrianCoord -= delta;
-
-        } else if (delta > 0) { // avatar turned left
-            delete((int) rightTerrianCoord, (int) (rightTerrianCoord + delta));
-            terrain.createInRange((int) (leftTerrianCoord - delta), (int) (leftTerrianCoord));
-            tree.createInRange((int) (leftTerrianCoord - delta), (int) (leftTerrianCoord));
-            rightTerrianCoord -= delta;
-            leftTerrianCoord -= delta;
+        updateChunks();
+        sincePoolStats += deltaTime;
+        if (sincePoolStats >= POOL_STATS_INTERVAL) {
+            sincePoolStats = 0;
+            logPoolStats();
         }
-        curr_place = avatar.getCenter().x();
     }
 
     // =========================== private methods ===========================
 
     /**
-     * deletes all the game objects between mixX to maxX
-     *
-     * @param minX the minimal bound of range
-     * @param maxX the maximal bound of range
+     * creates the chunks around the avatar, plans and gradually creates the chunks ahead of them and unloads
+     * the far ones - touches only the objects of the chunks that changed.
      */
-    private void delete(int minX, int maxX) {
-        Set<GameObject> objectsToDel = new HashSet<>();
-        for (GameObject obj : gameObjects()) {
-            if ((int) obj.getCenter().x() >= minX && (int) obj.getCenter().x() <= maxX) {
-                objectsToDel.add(obj);
-            }
-        }
-        for (GameObject obj : objectsToDel) {
-            String tag = obj.getTag();
-            switch (tag) {
-                case GROUND_TAG:
-                    System.out.println(gameObjects().removeGameObject(obj, GROUND_LAYER));
-                    break;
-                case UPPER_GROUND_TAG:
-                    System.out.println(gameObjects().removeGameObject(obj, UPPER_GROUND_LAYER));
-                    break;
-                case STEM_TAG:
-                    gameObjects().removeGameObject(obj, TREE_LAYER);
-                    break;
-                case LEAF_TAG:
-                    gameObjects().removeGameObject(obj, LEAF_LAYER);
-                    break;
-                default:
-                    gameObjects().removeGameObject(obj);
-                    break;
-            }
-        }
+    private void updateChunks() {
+        chunks.update(avatar.getCenter().x(),
+                LOADED_SCREENS_AROUND_AVATAR * windowController.getWindowDimensions().x());
+    }
+
+    /**
+     * logs the metrics of the pools of the terrain and the trees - how many objects were reused and how many
+     * were created - one line per pool, at the FINE level, so they are shown only when the logger is set to.
+     */
+    private void logPoolStats() {
+        Logger logger = Logger.getGlobal();
+        if (!logger.isLoggable(Level.FINE))
+            return;
+        for (ObjectPool<?> pool : pools)
+            logger.fine(pool.toString());
     }
 
     // ================================ Main ================================
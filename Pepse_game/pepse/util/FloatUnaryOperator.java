@@ -0,0 +1,14 @@
+package pepse.util;
+
+/**
+ * A function from a float to a float, like java.util.function.Function&lt;Float, Float&gt; but without
+ * boxing the argument and the result (e.g. Terrain::groundHeightAt).
+ */
+public interface FloatUnaryOperator {
+
+    /**
+     * @param x - The argument.
+     * @return - The result of the function.
+     */
+    float applyAsFloat(float x);
+}
@@ -0,0 +1,326 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Splits the world to chunks - strips of a fixed width - and keeps the game objects of every loaded chunk
+ * together, so loading or unloading a chunk touches only the objects of that chunk and never scans all the
+ * game objects. The loaded chunks are always a contiguous range around the avatar.
+ * The chunks are planned ahead of the avatar on worker threads, and the objects of a planned chunk are
+ * created on the game thread within a time budget per frame; only a chunk that must already be on the
+ * screen is created at once (waiting for its plan if it is not ready yet).
+ */
+public class ChunkManager {
+
+    // ========================== public constants ==========================
+
+    public static final int CHUNK_WIDTH = Block.SIZE * 10;
+
+    // ========================== private constant ==========================
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int SLACK_CHUNKS = 1; // kept beyond the range, so walking back does not reload.
+    private static final int PREFETCH_CHUNKS = 2; // planned and created ahead of the range, on each side.
+    private static final int NUM_OF_WORKERS = 2;
+    private static final long CREATE_BUDGET_NANOS = 2_000_000; // per frame, for the chunks ahead.
+    private static final String WORKER_NAME = "chunk-planner";
+    private static final String PLAN_FAILED_MSG = "Failed to plan chunk ";
+
+    // =============================== fields ===============================
+
+    private final GameObjectCollection gameObjects;
+    private Generator generator; // set once, before the first update.
+    private final ExecutorService workers = Executors.newFixedThreadPool(NUM_OF_WORKERS, runnable -> {
+        Thread thread = new Thread(runnable, WORKER_NAME);
+        thread.setDaemon(true); // never keeps the game from exiting.
+        return thread;
+    });
+    private final ArrayDeque<Chunk> loaded = new ArrayDeque<>(); // ordered by the chunk index.
+    private final ArrayDeque<ChunkPlan> freePlans = new ArrayDeque<>(); // guarded by itself.
+    private int firstLoaded; // the index of the first loaded chunk.
+    private int firstVisible; // the range of the chunks that must be created.
+    private int lastVisible = -1;
+    private int incomplete = 0; // the number of loaded chunks whose objects were not all created.
+    private Chunk loading; // the chunk whose objects are being created.
+
+    // =========================== public methods ===========================
+
+    /**
+     * Constructor. The generator is set later (see setGenerator), since it usually needs objects that are
+     * created with the chunk manager.
+     *
+     * @param gameObjects - The collection of all participating game objects.
+     */
+    public ChunkManager(GameObjectCollection gameObjects) {
+        this.gameObjects = gameObjects;
+    }
+
+    /**
+     * Sets the generator of the chunks. Must be called once, before the first update.
+     *
+     * @param generator - Plans the objects of a chunk and creates them, by calling addGameObject.
+     */
+    public void setGenerator(Generator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Adds a game object to the game and to the chunk that is being created. An object that is added while
+     * no chunk is created is added only to the game.
+     *
+     * @param obj   - The game object.
+     * @param layer - The layer of the object.
+     */
+    public void addGameObject(GameObject obj, int layer) {
+        addGameObject(obj, layer, null);
+    }
+
+    /**
+     * Adds a game object to the game and to the chunk that is being created, and releases it to a pool when
+     * the chunk is unloaded.
+     *
+     * @param obj   - The game object.
+     * @param layer - The layer of the object.
+     * @param pool  - The pool the object is released to, or null if it is not pooled.
+     */
+    public void addGameObject(GameObject obj, int layer, ObjectPool<?> pool) {
+        gameObjects.addGameObject(obj, layer);
+        if (loading != null)
+            loading.add(obj, layer, pool);
+    }
+
+    /**
+     * Makes sure the chunks that intersect a range around a location are created, plans the chunks ahead of
+     * them, creates objects of the planned chunks within the time budget and unloads the chunks that are
+     * far from the location. Should be called every frame, and does almost nothing once all the chunks
+     * around the location are created.
+     *
+     * @param centerX - The x-value of the location (e.g. of the avatar).
+     * @param radius  - The distance from the location that must be created.
+     */
+    public void update(float centerX, float radius) {
+        int first = Math.floorDiv((int) (centerX - radius), CHUNK_WIDTH);
+        int last = Math.floorDiv((int) (centerX + radius), CHUNK_WIDTH);
+        if (first != firstVisible || last != lastVisible) {
+            firstVisible = first;
+            lastVisible = last;
+            moveRange(first - PREFETCH_CHUNKS, last + PREFETCH_CHUNKS);
+        }
+        if (incomplete == 0)
+            return;
+        long deadline = System.nanoTime() + CREATE_BUDGET_NANOS;
+        int index = firstLoaded;
+        for (Chunk chunk : loaded) {
+            if (index >= first && index <= last)
+                chunk.createAll();
+            else if (chunk.plan.isDone())
+                chunk.createUntil(deadline);
+            index++;
+        }
+    }
+
+    /**
+     * Stops the worker threads. Chunks that are not planned yet will never be created.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Moves the range of the loaded chunks - unloads the chunks that are far out of the new range and starts
+     * planning the chunks that entered it.
+     *
+     * @param first - The index of the first chunk of the new range.
+     * @param last  - The index of the last chunk of the new range.
+     */
+    private void moveRange(int first, int last) {
+        while (!loaded.isEmpty() && firstLoaded < first - SLACK_CHUNKS) {
+            loaded.pollFirst().unload();
+            firstLoaded++;
+        }
+        while (!loaded.isEmpty() && lastLoaded() > last + SLACK_CHUNKS)
+            loaded.pollLast().unload();
+        if (loaded.isEmpty())
+            firstLoaded = first;
+        while (firstLoaded > first)
+            loaded.addFirst(new Chunk(--firstLoaded));
+        for (int i = lastLoaded() + 1; i <= last; i++)
+            loaded.addLast(new Chunk(i));
+    }
+
+    /**
+     * Takes a cleared plan out of the plans of the chunks that were created or unloaded, or creates a new one.
+     * Called on the worker threads.
+     *
+     * @return - An empty plan.
+     */
+    private ChunkPlan obtainPlan() {
+        synchronized (freePlans) {
+            ChunkPlan plan = freePlans.pollLast();
+            return plan != null ? plan : new ChunkPlan();
+        }
+    }
+
+    /**
+     * Clears the plan of a chunk that is no longer needed, so the next chunks can be planned into it.
+     *
+     * @param plan - The plan.
+     */
+    private void releasePlan(ChunkPlan plan) {
+        plan.clear();
+        synchronized (freePlans) {
+            freePlans.addLast(plan);
+        }
+    }
+
+    /**
+     * @return - The index of the last loaded chunk (firstLoaded - 1 if no chunk is loaded).
+     */
+    private int lastLoaded() {
+        return firstLoaded + loaded.size() - 1;
+    }
+
+    // ============================ nested class ============================
+
+    /**
+     * Plans and creates the objects of a range of x-values, e.g. with Terrain and Tree.
+     */
+    public interface Generator {
+        /**
+         * Plans the objects of a range. Called on a worker thread, so it must not touch the game objects.
+         *
+         * @param minX - The lower bound of the range.
+         * @param maxX - The upper bound of the range.
+         * @param plan - The plan the objects are added to.
+         */
+        void planInRange(int minX, int maxX, ChunkPlan plan);
+
+        /**
+         * Creates an object of a plan. Called on the game thread.
+         *
+         * @param plan - A plan of a chunk.
+         * @param i    - The index of the object in the plan.
+         */
+        void create(ChunkPlan plan, int i);
+    }
+
+    /**
+     * A loaded chunk - its plan, which is computed on a worker thread, and the game objects that were already
+     * created from it, with their layers and pools. An object belongs to the chunk it was created in, so e.g. the
+     * leaves of a tree are unloaded with its stem even if they are over the next chunk.
+     */
+    private final class Chunk {
+        private final int index;
+        private final Future<ChunkPlan> plan;
+        private final List<GameObject> objects = new ArrayList<>(INITIAL_CAPACITY);
+        private int[] layers = new int[INITIAL_CAPACITY];
+        private ObjectPool<?>[] pools = new ObjectPool<?>[INITIAL_CAPACITY];
+        private int created = 0; // the number of objects of the plan that were created.
+        private boolean complete = false;
+
+        /**
+         * Constructor - starts planning the chunk.
+         *
+         * @param index - The index of the chunk.
+         */
+        private Chunk(int index) {
+            this.index = index;
+            plan = workers.submit(() -> {
+                ChunkPlan chunkPlan = obtainPlan();
+                generator.planInRange(index * CHUNK_WIDTH, (index + 1) * CHUNK_WIDTH, chunkPlan);
+                return chunkPlan;
+            });
+            incomplete++;
+        }
+
+        /**
+         * Creates all the objects of the chunk that were not created yet, waiting for the plan if needed.
+         */
+        private void createAll() {
+            createUntil(Long.MAX_VALUE);
+        }
+
+        /**
+         * Creates objects of the chunk until all of them are created or the deadline passed.
+         *
+         * @param deadline - The deadline, in the time of System.nanoTime.
+         */
+        private void createUntil(long deadline) {
+            if (complete)
+                return;
+            ChunkPlan chunkPlan = planOf();
+            loading = this;
+            try {
+                while (created < chunkPlan.size() && System.nanoTime() < deadline)
+                    generator.create(chunkPlan, created++);
+            } finally {
+                loading = null;
+            }
+            if (created == chunkPlan.size()) {
+                complete = true;
+                incomplete--;
+                releasePlan(chunkPlan);
+            }
+        }
+
+        /**
+         * @param obj   - A game object of the chunk.
+         * @param layer - The layer of the object.
+         * @param pool  - The pool of the object, or null.
+         */
+        private void add(GameObject obj, int layer, ObjectPool<?> pool) {
+            if (objects.size() == layers.length) {
+                layers = Arrays.copyOf(layers, layers.length * 2);
+                pools = Arrays.copyOf(pools, pools.length * 2);
+            }
+            layers[objects.size()] = layer;
+            pools[objects.size()] = pool;
+            objects.add(obj);
+        }
+
+        /**
+         * Removes all the objects of the chunk from the game, releasing the pooled ones to their pools, and
+         * stops planning the chunk if it was not planned yet (a plan that is ready but was not created in full
+         * is released for reuse).
+         */
+        private void unload() {
+            if (!plan.cancel(true) && !complete)
+                releasePlan(planOf());
+            for (int i = 0; i < objects.size(); i++) {
+                gameObjects.removeGameObject(objects.get(i), layers[i]);
+                if (pools[i] != null)
+                    pools[i].release(objects.get(i));
+            }
+            objects.clear();
+            Arrays.fill(pools, null);
+            if (!complete)
+                incomplete--;
+        }
+
+        /**
+         * @return - The plan of the chunk, waiting for it if it is not ready yet.
+         */
+        private ChunkPlan planOf() {
+            try {
+                return plan.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(PLAN_FAILED_MSG + index, e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(PLAN_FAILED_MSG + index, e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package pepse.world;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * A description of the objects of a chunk - their kinds, places and colors - without the objects themselves.
+ * A plan is computed on a worker thread (see Terrain.planInRange and Tree.planInRange) and its objects are
+ * created later on the game thread, a few at a time. The entries are kept in primitive arrays, except for the
+ * image of an object that is drawn as an image (like the ground under the upper blocks). A plan whose objects
+ * were created is cleared and reused for another chunk (see ChunkManager), so its arrays are kept.
+ */
+public class ChunkPlan {
+
+    // ========================== public constants ==========================
+
+    public static final byte GROUND = 0; // a strip of ground, drawn as an image.
+    public static final byte UPPER_GROUND = 1;
+    public static final byte STEM = 2;
+    public static final byte LEAF = 3;
+
+    // ========================== private constant ==========================
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int GROWTH_FACTOR = 2;
+
+    // =============================== fields ===============================
+
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int[] xs = new int[INITIAL_CAPACITY];
+    private int[] ys = new int[INITIAL_CAPACITY];
+    private int[] colors = new int[INITIAL_CAPACITY];
+    private BufferedImage[] images = new BufferedImage[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Adds an object to the plan.
+     *
+     * @param kind  - The kind of the object (GROUND, UPPER_GROUND, STEM or LEAF).
+     * @param x     - The x-value of the top-left corner of the object.
+     * @param y     - The y-value of the top-left corner of the object.
+     * @param color - The color of the object, as an RGB int.
+     */
+    public void add(byte kind, int x, int y, int color) {
+        if (size == kinds.length) {
+            int capacity = kinds.length * GROWTH_FACTOR;
+            kinds = Arrays.copyOf(kinds, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+            images = Arrays.copyOf(images, capacity);
+        }
+        kinds[size] = kind;
+        xs[size] = x;
+        ys[size] = y;
+        colors[size] = color;
+        size++;
+    }
+
+    /**
+     * Adds an object that is drawn as an image to the plan.
+     *
+     * @param kind  - The kind of the object.
+     * @param x     - The x-value of the top-left corner of the object.
+     * @param y     - The y-value of the top-left corner of the object.
+     * @param image - The image of the object, which is also its size.
+     */
+    public void add(byte kind, int x, int y, BufferedImage image) {
+        add(kind, x, y, 0);
+        images[size - 1] = image;
+    }
+
+    /**
+     * Removes all the objects of the plan, keeping its arrays for the next chunk.
+     */
+    public void clear() {
+        Arrays.fill(images, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * @return - The number of objects in the plan.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i - The index of an object in the plan.
+     * @return - The kind of the object.
+     */
+    public byte kind(int i) {
+        return kinds[i];
+    }
+
+    /**
+     * @param i - The index of an object in the plan.
+     * @return - The x-value of the top-left corner of the object.
+     */
+    public int x(int i) {
+        return xs[i];
+    }
+
+    /**
+     * @param i - The index of an object in the plan.
+     * @return - The y-value of the top-left corner of the object.
+     */
+    public int y(int i) {
+        return ys[i];
+    }
+
+    /**
+     * @param i - The index of an object in the plan.
+     * @return - The color of the object, as an RGB int.
+     */
+    public int color(int i) {
+        return colors[i];
+    }
+
+    /**
+     * @param i - The index of an object in the plan.
+     * @return - The image of the object, or null if it is not drawn as an image.
+     */
+    public BufferedImage image(int i) {
+        return images[i];
+    }
+}
@@ -0,0 +1,64 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * The ground under the upper blocks of a range of columns, drawn as one image instead of a Block per cell.
+ * Nothing can reach it through the upper blocks, so it never collides.
+ */
+public class GroundStrip extends GameObject {
+
+    // =============================== fields ===============================
+
+    private BufferedImage image;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Construct a new GroundStrip instance.
+     *
+     * @param topLeftCorner - The location of the top-left corner of the image.
+     * @param image         - The image of the ground, in pixels of the window (transparent above the ground).
+     */
+    public GroundStrip(Vector2 topLeftCorner, BufferedImage image) {
+        super(topLeftCorner, new Vector2(image.getWidth(), image.getHeight()), new ImageRenderable(image));
+        this.image = image;
+    }
+
+    /**
+     * Places a strip that was removed from the game (see ObjectPool) again, with another image.
+     *
+     * @param topLeftCorner - The location of the top-left corner of the image.
+     * @param image         - The image of the ground.
+     */
+    public void reset(Vector2 topLeftCorner, BufferedImage image) {
+        setTopLeftCorner(topLeftCorner);
+        if (image != this.image) {
+            setDimensions(new Vector2(image.getWidth(), image.getHeight()));
+            renderer().setRenderable(new ImageRenderable(image));
+            this.image = image;
+        }
+    }
+
+    /**
+     * @return - The image of the ground.
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * The strip is only drawn, so it never collides.
+     *
+     * @param other - Another game object.
+     * @return - false.
+     */
+    @Override
+    public boolean shouldCollideWith(GameObject other) {
+        return false;
+    }
+}
@@ -0,0 +1,109 @@
+package pepse.world;
+
+import pepse.util.FloatUnaryOperator;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A cache of the heights of the columns of the terrain, quantized to blocks.
+ * The heights are computed from the noise function once per column and kept in a primitive array per chunk
+ * of columns, and the oldest chunks are evicted, so a query is usually an array read.
+ * Queried by the game thread and by the worker threads that plan chunks - the chunks are kept in a concurrent
+ * map and every thread remembers the last chunk it queried, so the threads never wait for each other on a
+ * query of a chunk that is already computed. The arrays are never changed once computed, so a thread may keep
+ * reading an array that was already evicted.
+ */
+class Heightmap {
+
+    // ========================== private constant ==========================
+
+    private static final int COLUMNS_IN_CHUNK = 64;
+    private static final int MAX_CHUNKS = 64;
+
+    // =============================== fields ===============================
+
+    private final FloatUnaryOperator noise;
+    private final Map<Integer, int[]> chunks = new ConcurrentHashMap<>();
+    private final Queue<Integer> order = new ConcurrentLinkedQueue<>(); // the chunks, from the oldest.
+    private final ThreadLocal<LastChunk> last = ThreadLocal.withInitial(LastChunk::new);
+
+    // ======================= package-private methods =======================
+
+    /**
+     * Constructor.
+     *
+     * @param noise - The height of the ground at a given x-value, before it is quantized to blocks.
+     */
+    Heightmap(FloatUnaryOperator noise) {
+        this.noise = noise;
+    }
+
+    /**
+     * Returns the height of the top block of the column that contains a given x-value.
+     *
+     * @param x - An x-value.
+     * @return - The y-value of the top of the column (a multiple of Block.SIZE).
+     */
+    int heightAt(float x) {
+        int column = Math.floorDiv((int) Math.floor(x), Block.SIZE);
+        int chunk = Math.floorDiv(column, COLUMNS_IN_CHUNK);
+        LastChunk lastChunk = last.get();
+        if (lastChunk.heights == null || chunk != lastChunk.index) {
+            lastChunk.heights = heightsOf(chunk);
+            lastChunk.index = chunk;
+        }
+        return lastChunk.heights[column - chunk * COLUMNS_IN_CHUNK];
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Returns the heights of a chunk of columns, computing them if they are not cached, and evicts the oldest
+     * chunks if there are too many.
+     *
+     * @param chunk - The index of a chunk of columns.
+     * @return - The heights of the columns of the chunk.
+     */
+    private int[] heightsOf(int chunk) {
+        int[] heights = chunks.get(chunk);
+        if (heights != null)
+            return heights;
+        heights = chunks.computeIfAbsent(chunk, key -> {
+            order.add(key);
+            return computeChunk(key);
+        });
+        while (chunks.size() > MAX_CHUNKS) {
+            Integer eldest = order.poll();
+            if (eldest == null)
+                break;
+            chunks.remove(eldest);
+        }
+        return heights;
+    }
+
+    /**
+     * @param chunk - The index of a chunk of columns.
+     * @return - The heights of the columns of the chunk.
+     */
+    private int[] computeChunk(int chunk) {
+        int[] heights = new int[COLUMNS_IN_CHUNK];
+        for (int i = 0; i < COLUMNS_IN_CHUNK; i++) {
+            int x = (chunk * COLUMNS_IN_CHUNK + i) * Block.SIZE;
+            heights[i] = ((int) (noise.applyAsFloat(x) / Block.SIZE)) * Block.SIZE;
+        }
+        return heights;
+    }
+
+    // ============================ nested class ============================
+
+    /**
+     * The last chunk that a thread queried, which it reads without the map.
+     */
+    private static final class LastChunk {
+        private int index;
+        private int[] heights = null;
+    }
+}
@@ -0,0 +1,73 @@
+package pepse.world;
+
+import danogl.GameObject;
+
+import java.util.ArrayDeque;
+
+/**
+ * A pool of game objects of one kind that were removed from the game, so they can be placed again instead of
+ * creating new ones. The objects are released to the pool when their chunk is unloaded (see ChunkManager),
+ * and whoever obtains an object resets it (its place, and anything else that changed).
+ * Used only on the game thread.
+ *
+ * @param <T> - The type of the objects.
+ */
+public class ObjectPool<T extends GameObject> {
+
+    // ========================== private constant ==========================
+
+    private static final String STATS_FORMAT = "%s pool: %d free, %d reused, %d created";
+
+    // =============================== fields ===============================
+
+    private final String name;
+    private final Class<T> type;
+    private final ArrayDeque<T> free = new ArrayDeque<>();
+    private long reused = 0;
+    private long created = 0;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Constructor.
+     *
+     * @param name - The name of the pool, for its metrics.
+     * @param type - The type of the objects.
+     */
+    public ObjectPool(String name, Class<T> type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    /**
+     * Takes an object out of the pool.
+     *
+     * @return - An object that is not in the game, or null if the pool is empty (and then the caller
+     * creates a new object).
+     */
+    public T obtain() {
+        T obj = free.pollLast();
+        if (obj == null)
+            created++;
+        else
+            reused++;
+        return obj;
+    }
+
+    /**
+     * Returns an object that was removed from the game to the pool.
+     *
+     * @param obj - An object of the type of the pool.
+     */
+    public void release(GameObject obj) {
+        free.addLast(type.cast(obj));
+    }
+
+    /**
+     * @return - The metrics of the pool, in one line.
+     */
+    @Override
+    public String toString() {
+        return String.format(STATS_FORMAT, name, free.size(), reused, created);
+    }
+}
@@ -1,89 +1,216 @@
 package pepse.world;
 
-import danogl.collisions.GameObjectCollection;
 import danogl.collisions.Layer;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
 import pepse.util.ColorSupplier;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
 
 
 /**
  * Responsible for the creation and management of terrain.
+ * Only the upper blocks of every column are Block objects that can be collided with - the ground under them
+ * is drawn as one image for the whole range (see GroundStrip), which looks the same as separate blocks.
  */
 public class Terrain {
 
     // ========================== private constant ==========================
 
     private static final int TERRAIN_DEPTH = 20;
+    private static final int UPPER_GROUND_DEPTH = 2; // the blocks that can be collided with, in each column.
     private static final Color GROUND_COLOR = new Color(212, 123, 74);
     private static final int UPPER_GROUND_LAYER = Layer.STATIC_OBJECTS + 20;
     private static final String GROUND_TAG = "ground";
     private static final String UPPER_GROUND_TAG = "upper_ground";
+    private static final int IMAGE_HEIGHT_STEP = Block.SIZE * 4; // so images of close heights can be reused.
 
     // =============================== fields ===============================
 
-    private final GameObjectCollection gameObjects;
+    private final ChunkManager chunks;
     private final int groundLayer;
     private final Vector2 windowDimensions;
     private final int seed;
+    private final ObjectPool<Block> upperGroundPool = new ObjectPool<>(UPPER_GROUND_TAG, Block.class);
+    private final ObjectPool<GroundStrip> groundPool = new ObjectPool<>(GROUND_TAG, GroundStrip.class);
+    private final ArrayDeque<BufferedImage> freeImages = new ArrayDeque<>(); // guarded by itself.
+    private final Heightmap heightmap = new Heightmap(this::perlin);
+    // the heights of the columns of a plan, reused by every planning thread.
+    private final ThreadLocal<int[]> heightsBuffer = ThreadLocal.withInitial(() -> new int[0]);
 
     // =========================== public methods ===========================
 
     /**
      * This function creates Terrain by using object.
      *
-     * @param gameObjects      game objects collection of the game
+     * @param chunks           the chunks of the world, which the blocks are added to
      * @param groundLayer      layer of the ground
      * @param windowDimensions dimensions of the screen
      */
-    public Terrain(danogl.collisions.GameObjectCollection gameObjects,
+    public Terrain(ChunkManager chunks,
                    int groundLayer,
                    danogl.util.Vector2 windowDimensions, int seed) {
-        this.gameObjects = gameObjects;
+        this.chunks = chunks;
         this.groundLayer = groundLayer;
         this.windowDimensions = windowDimensions;
         this.seed = seed;
     }
 
     /**
-     * This method return the ground height at a given location.
+     * This method return the ground height at a given location - the top of the column of blocks there.
+     * The heights are cached per chunk of columns, so this is usually an array read.
      *
      * @param x- A number.
-     * @return The ground height at the given location.
+     * @return The ground height at the given location (a multiple of Block.SIZE).
      */
     public float groundHeightAt(float x) {
-        return perlin(x); // search better noise function
+        return heightmap.heightAt(x);
     }
 
     /**
-     * This method creates terrain in a given range of x-values.
+     * This method plans the terrain in a given range of x-values - the places and colors of its upper blocks
+     * and the image of the ground under them - without creating them, so it may be called on any thread.
      *
      * @param minX - The lower bound of the given range (will be rounded to a multiple of Block.SIZE).
      * @param maxX - The upper bound of the given range (will be rounded to a multiple of Block.SIZE).
+     * @param plan - The plan the blocks are added to.
      */
-    public void createInRange(int minX, int maxX) {
+    public void planInRange(int minX, int maxX, ChunkPlan plan) {
         if (minX % Block.SIZE != 0) // round down minX if needed
             minX -= (minX < 0) ? Block.SIZE + (minX % Block.SIZE) : minX % Block.SIZE;
 
         if (maxX % Block.SIZE != 0) // round up maxX if needed
             maxX += (maxX < 0) ? -(maxX % Block.SIZE) : Block.SIZE - (maxX % Block.SIZE);
-        // creating blocks
-        for (int x = minX; x < maxX; x += Block.SIZE) {
-            int yHeight = ((int) (perlin(x) / Block.SIZE)) * Block.SIZE;
-            for (int y = yHeight; y < yHeight + (Block.SIZE * TERRAIN_DEPTH); y += Block.SIZE) {
-                Block block = new Block(
-                        new Vector2(x, y),
-                        new RectangleRenderable(ColorSupplier.approximateColor(GROUND_COLOR)));
-                if (y == yHeight || y == yHeight + Block.SIZE) {
-                    gameObjects.addGameObject(block, UPPER_GROUND_LAYER);
-                    block.setTag(UPPER_GROUND_TAG);
-                } else {
-                    gameObjects.addGameObject(block, groundLayer);
-                    block.setTag(GROUND_TAG);
+        if (minX >= maxX)
+            return;
+        // planning the upper blocks
+        int columns = (maxX - minX) / Block.SIZE;
+        int[] heights = heightsBuffer.get();
+        if (heights.length < columns) {
+            heights = new int[columns];
+            heightsBuffer.set(heights);
+        }
+        for (int col = 0; col < columns; col++) {
+            int x = minX + col * Block.SIZE;
+            heights[col] = heightmap.heightAt(x);
+            for (int y = heights[col]; y < heights[col] + Block.SIZE * UPPER_GROUND_DEPTH; y += Block.SIZE)
+                plan.add(ChunkPlan.UPPER_GROUND, x, y,
+                        ColorSupplier.approximateColor(GROUND_COLOR).getRGB());
+        }
+        // planning the ground under them
+        int top = Integer.MAX_VALUE;
+        int bottom = Integer.MIN_VALUE;
+        for (int col = 0; col < columns; col++) {
+            top = Math.min(top, heights[col] + Block.SIZE * UPPER_GROUND_DEPTH);
+            bottom = Math.max(bottom, heights[col] + Block.SIZE * TERRAIN_DEPTH);
+        }
+        plan.add(ChunkPlan.GROUND, minX, top, groundImage(heights, columns, top, bottom));
+    }
+
+    /**
+     * This method creates an upper block or the ground of a plan. Must be called on the game thread.
+     *
+     * @param plan - A plan of terrain.
+     * @param i    - The index of the object in the plan (of kind GROUND or UPPER_GROUND).
+     */
+    public void create(ChunkPlan plan, int i) {
+        Vector2 topLeftCorner = new Vector2(plan.x(i), plan.y(i));
+        if (plan.kind(i) == ChunkPlan.GROUND) {
+            GroundStrip ground = groundPool.obtain();
+            if (ground == null) {
+                ground = new GroundStrip(topLeftCorner, plan.image(i));
+            } else {
+                releaseImage(ground.getImage());
+                ground.reset(topLeftCorner, plan.image(i));
+            }
+            chunks.addGameObject(ground, groundLayer, groundPool);
+            ground.setTag(GROUND_TAG);
+            return;
+        }
+        // a block of an unloaded chunk keeps its own color, which is also close to the color of the ground.
+        Block block = upperGroundPool.obtain();
+        if (block == null)
+            block = new Block(topLeftCorner, new RectangleRenderable(new Color(plan.color(i))));
+        else
+            block.setTopLeftCorner(topLeftCorner);
+        chunks.addGameObject(block, UPPER_GROUND_LAYER, upperGroundPool);
+        block.setTag(UPPER_GROUND_TAG);
+    }
+
+    /**
+     * @return - The pools of the upper blocks and of the ground strips, with their metrics.
+     */
+    public List<ObjectPool<?>> getPools() {
+        return List.of(upperGroundPool, groundPool);
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Draws the ground under the upper blocks of a range of columns - a cell of Block.SIZE pixels in its own
+     * color for every block, as the blocks would be drawn, and transparent pixels around the ground. The image
+     * of a ground strip that was reused is drawn again, so it may be bigger than needed.
+     *
+     * @param heights - The height of the top of every column (the array may be longer than the columns).
+     * @param columns - The number of columns.
+     * @param top     - The y-value of the top of the image.
+     * @param bottom  - The y-value of the bottom of the image.
+     * @return - The image of the ground.
+     */
+    private BufferedImage groundImage(int[] heights, int columns, int top, int bottom) {
+        BufferedImage image = obtainImage(columns * Block.SIZE, bottom - top);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setComposite(AlphaComposite.Clear);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            graphics.setComposite(AlphaComposite.SrcOver);
+            for (int col = 0; col < columns; col++) {
+                for (int y = heights[col] + Block.SIZE * UPPER_GROUND_DEPTH;
+                     y < heights[col] + Block.SIZE * TERRAIN_DEPTH; y += Block.SIZE) {
+                    graphics.setColor(ColorSupplier.approximateColor(GROUND_COLOR));
+                    graphics.fillRect(col * Block.SIZE, y - top, Block.SIZE, Block.SIZE);
                 }
             }
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Takes an image that is big enough out of the images of the ground strips that were reused, or creates a
+     * new one. Called on the worker threads.
+     *
+     * @param width  - The minimal width of the image.
+     * @param height - The minimal height of the image.
+     * @return - An image.
+     */
+    private BufferedImage obtainImage(int width, int height) {
+        synchronized (freeImages) {
+            for (Iterator<BufferedImage> it = freeImages.iterator(); it.hasNext(); ) {
+                BufferedImage image = it.next();
+                if (image.getWidth() >= width && image.getHeight() >= height) {
+                    it.remove();
+                    return image;
+                }
+            }
+        }
+        int roundedHeight = ((height + IMAGE_HEIGHT_STEP - 1) / IMAGE_HEIGHT_STEP) * IMAGE_HEIGHT_STEP;
+        return new BufferedImage(width, roundedHeight, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * Returns the image of a ground strip that got another image, so the next plans can draw on it.
+     *
+     * @param image - The old image of the strip.
+     */
+    private void releaseImage(BufferedImage image) {
+        synchronized (freeImages) {
+            freeImages.addLast(image);
         }
     }
 
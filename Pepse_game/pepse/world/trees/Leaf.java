@@ -24,16 +24,20 @@ public class Leaf extends Block {
     private static final Float FINAL_ANGLE_TRAN_VAL = 10f;
     private static final Float INITIAL_HORIZONTAL_TRAN_VAL = -50f;
     private static final Float FINAL_HORIZONTAL_TRAN_VAL = 50f;
+    private static final float RESET_ANGLE = 0;
 
 
 
     // =============================== fields ===============================
 
-    private final Vector2 topLeftCorner;
+    private Vector2 topLeftCorner;
     private final Vector2 dimensions;
     private Component horizontalTransition;
     private Transition<Vector2> dimensionsTransition;
     private Transition<Float> angleTransition;
+    private ScheduledTask movementTask;
+    private ScheduledTask fallingTask;
+    private ScheduledTask deathTask;
     private boolean flag; // true while a collision happened and the vel of the leaf is still not Vector.ZERO
 
     // =========================== public methods ===========================
@@ -54,6 +58,33 @@ public class Leaf extends Block {
         setLifeTime();
     }
 
+    /**
+     * places a leaf that was removed from the game (see ObjectPool) on a tree again - stops all its
+     * transitions and scheduled tasks and begins a new life cycle of it, as if it was a new leaf.
+     *
+     * @param topLeftCorner the new position of the leaf on its tree.
+     */
+    public void reset(Vector2 topLeftCorner) {
+        this.topLeftCorner = topLeftCorner;
+        removeComponent(horizontalTransition);
+        removeComponent(angleTransition);
+        removeComponent(dimensionsTransition);
+        removeComponent(movementTask);
+        removeComponent(fallingTask);
+        removeComponent(deathTask);
+        horizontalTransition = null;
+        angleTransition = null;
+        dimensionsTransition = null;
+        movementTask = null;
+        fallingTask = null;
+        deathTask = null;
+        setVelocity(Vector2.ZERO);
+        setDimensions(dimensions);
+        renderer().setRenderableAngle(RESET_ANGLE);
+        flag = false;
+        setLifeTime();
+    }
+
     /**
      * on collision, we want the leaf will stay on the ground in static mode, without moving so this method
      * is responsible for that.
@@ -115,7 +146,7 @@ public class Leaf extends Block {
      * this method sets the death time of the leaf, for how long the leaf will be faded out.
      */
     private void setDeathTime() {
-        new ScheduledTask(this, (float) Math.random() * 30,
+        deathTask = new ScheduledTask(this, (float) Math.random() * 30,
                 false, this::setLifeTime);
     }
 
@@ -126,9 +157,9 @@ public class Leaf extends Block {
     private void setLifeTime() {
         this.setTopLeftCorner(topLeftCorner);
         this.renderer().fadeIn(0);
-        new ScheduledTask(this, (float) Math.random() * 5,
+        movementTask = new ScheduledTask(this, (float) Math.random() * 5,
                 false, this::leafMovement); // scheduled the life movement of the leaf on the tree
-        new ScheduledTask(this, (float) Math.random() * 30,
+        fallingTask = new ScheduledTask(this, (float) Math.random() * 30,
                 false, this::fallingLeaves);
     }
 
@@ -1,17 +1,20 @@
 package pepse.world.trees;
 
-import danogl.collisions.GameObjectCollection;
 import danogl.collisions.Layer;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
 import pepse.PepseGameManager;
 import pepse.util.ColorSupplier;
+import pepse.util.FloatUnaryOperator;
 import pepse.world.Block;
+import pepse.world.ChunkManager;
+import pepse.world.ChunkPlan;
+import pepse.world.ObjectPool;
 
 import java.awt.*;
+import java.util.List;
 import java.util.Objects;
 import java.util.Random;
-import java.util.function.Function;
 
 /**
  * Responsible for the creation and management of trees.
@@ -32,37 +35,41 @@ public class Tree {
 
     // =============================== fields ===============================
 
-    private final GameObjectCollection gameObjects;
+    private final ChunkManager chunks;
     private final int layer;
     private final Vector2 windowDimensions;
-    private final Function<Float, Float> groundHeightAt;
+    private final FloatUnaryOperator groundHeightAt;
+    private final ObjectPool<Block> stemPool = new ObjectPool<>(STEM_TAG, Block.class);
+    private final ObjectPool<Leaf> leafPool = new ObjectPool<>(LEAF_TAG, Leaf.class);
 
     // =========================== public methods ===========================
 
     /**
      * Constructor.
      *
-     * @param gameObjects       - The collection of all participating game objects.
+     * @param chunks            - The chunks of the world, which the stems and leaves are added to.
      * @param layer             - The number of the layer to which the created halo should be added.
      * @param windowDimensions- The dimensions of the windows.
      * @param groundHeightAt    - A callback that return the ground height at a given location.
      */
-    public Tree(GameObjectCollection gameObjects,
+    public Tree(ChunkManager chunks,
                 int layer,
-                Vector2 windowDimensions, Function<Float, Float> groundHeightAt) {
-        this.gameObjects = gameObjects;
+                Vector2 windowDimensions, FloatUnaryOperator groundHeightAt) {
+        this.chunks = chunks;
         this.layer = layer;
         this.windowDimensions = windowDimensions;
         this.groundHeightAt = groundHeightAt;
     }
 
     /**
-     * This method creates trees in a given range of x-values.
+     * This method plans the trees in a given range of x-values - the places and colors of their stems and
+     * leaves - without creating them, so it may be called on any thread.
      *
      * @param minX - The lower bound of the given range (will be rounded to a multiple of Block.SIZE).
      * @param maxX - The upper bound of the given range (will be rounded to a multiple of Block.SIZE).
+     * @param plan - The plan the stems and leaves are added to.
      */
-    public void createInRange(int minX, int maxX) {
+    public void planInRange(int minX, int maxX, ChunkPlan plan) {
         minX = roundMinMax(minX, true);
         maxX = roundMinMax(maxX, false);
 
@@ -73,12 +80,12 @@ public class Tree {
             Random random = new Random(Objects.hash(x, PepseGameManager.SEED));
             if (random.nextInt(STEM_BOUND_PROB) == CHANCES_NUM) {
 
-                int yHeight = (((int) (groundHeightAt.apply((float) x) /
+                int yHeight = (((int) (groundHeightAt.applyAsFloat(x) /
                         Block.SIZE)) * Block.SIZE) - Block.SIZE;
                 int len = random.nextInt(MAX_STEM_HEIGHT) + MIN_STEM_HEIGHT;
 
                 for (int y = yHeight; y > yHeight - len * Block.SIZE; y -= Block.SIZE)
-                    createTree(x, y);
+                    plan.add(ChunkPlan.STEM, x, y, ColorSupplier.approximateColor(STEM_COLOR).getRGB());
 
                 int leafLen = random.nextInt(len / 2) + 2;
                 if (leafLen % 2 == 0)
@@ -90,26 +97,51 @@ public class Tree {
                          yLeaf > yHeight - (len - leafLen / 2) * Block.SIZE - leafLen * Block.SIZE;
                          yLeaf -= Block.SIZE) {
 
-                        createLeaf(xLeaf, yLeaf);
+                        plan.add(ChunkPlan.LEAF, xLeaf, yLeaf,
+                                ColorSupplier.approximateColor(LEAF_COLOR).getRGB());
                     }
                 }
             }
         }
     }
 
+    /**
+     * This method creates a stem block or a leaf of a plan. Must be called on the game thread.
+     *
+     * @param plan - A plan of trees.
+     * @param i    - The index of the object in the plan (of kind STEM or LEAF).
+     */
+    public void create(ChunkPlan plan, int i) {
+        if (plan.kind(i) == ChunkPlan.LEAF)
+            createLeaf(plan.x(i), plan.y(i), plan.color(i));
+        else
+            createTree(plan.x(i), plan.y(i), plan.color(i));
+    }
+
+    /**
+     * @return - The pools of the stem blocks and of the leaves, with their metrics.
+     */
+    public List<ObjectPool<?>> getPools() {
+        return List.of(stemPool, leafPool);
+    }
+
     // =========================== private methods ===========================
 
     /**
-     * creating the stem of the tree
+     * creating the stem of the tree, from a stem block of an unloaded chunk if there is one (it keeps its own
+     * color, which is also close to the color of a stem).
      *
-     * @param x x coordinate of top left corner
-     * @param y y coordinate of top left corner
+     * @param x     x coordinate of top left corner
+     * @param y     y coordinate of top left corner
+     * @param color the color of the stem block as an RGB int, if a new one is created
      */
-    private void createTree(int x, int y) {
-        Block stem = new Block(
-                new Vector2(x, y),
-                new RectangleRenderable(ColorSupplier.approximateColor(STEM_COLOR)));
-        gameObjects.addGameObject(stem, layer);
+    private void createTree(int x, int y, int color) {
+        Block stem = stemPool.obtain();
+        if (stem == null)
+            stem = new Block(new Vector2(x, y), new RectangleRenderable(new Color(color)));
+        else
+            stem.setTopLeftCorner(new Vector2(x, y));
+        chunks.addGameObject(stem, layer, stemPool);
         stem.setTag(STEM_TAG);
     }
 
@@ -132,17 +164,23 @@ public class Tree {
     }
 
     /**
-     * creating single leaf
+     * creating single leaf, from a leaf of an unloaded chunk if there is one (it keeps its own color, which
+     * is also close to the color of a leaf).
      *
      * @param xLeaf x top left corner of the leaf.
      * @param yLeaf y top left corner of the leaf.
+     * @param color the color of the leaf as an RGB int, if a new one is created.
      */
-    private void createLeaf(int xLeaf, int yLeaf) {
-        Leaf leaf = new Leaf(
-                new Vector2(xLeaf, yLeaf),
-                new Vector2(Block.SIZE, Block.SIZE),
-                new RectangleRenderable(ColorSupplier.approximateColor(LEAF_COLOR)));
-        gameObjects.addGameObject(leaf, LEAF_LAYER);
+    private void createLeaf(int xLeaf, int yLeaf, int color) {
+        Leaf leaf = leafPool.obtain();
+        if (leaf == null)
+            leaf = new Leaf(
+                    new Vector2(xLeaf, yLeaf),
+                    new Vector2(Block.SIZE, Block.SIZE),
+                    new RectangleRenderable(new Color(color)));
+        else
+            leaf.reset(new Vector2(xLeaf, yLeaf));
+        chunks.addGameObject(leaf, LEAF_LAYER, leafPool);
         leaf.setTag(LEAF_TAG);
     }
 }
@@ -1,16 +1,13 @@
 package ascii_art;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.stream.Stream;
 
 public class Algorithms {
 
-    private static final int FIRST_LETTER_IN_ALPHABET = 97;
-
-    private static final String[] morseArray = new String[]{
-            ".-", "-...", "-.-.", "-..", ".", "..-.", "--.", "....",
-            "..", ".---", "-.-", ".-..", "--", "-.", "---", ".--.", "--.-",
-            ".-.", "...", "-", "..-", "...-", ".--", "-..-", "-.--", "--.."};
-
     /**
      * The function finds the number that repeats itself.
      *
@@ -52,43 +49,32 @@ public class Algorithms {
      * @return - Amount of unique words.
      */
     public static int uniqueMorseRepresentations(String[] words) {
-        Set<String> morseWordsSet = new HashSet<>();
-        Map<Character, String> morseCharMap = new HashMap<>();
-
-        for (int i = 0; i < morseArray.length; i++)
-            morseCharMap.put((char) (i + FIRST_LETTER_IN_ALPHABET), morseArray[i]);
-
-        int count = 0;
-        for (String word : words) {
-            if (checkIfUnique(morseWordsSet, morseCharMap, word))
-                count++;
-        }
-        return count;
+        return uniqueMorseRepresentations(Arrays.stream(words));
     }
 
     /**
-     * The function checks if the current word it gets appear in the morseWordsSet, if it's not we
-     * add it.
+     * Checks the amount of the unique Morse representations of a stream of words.
+     * The words are added to a MorseTrie without building a String of their representations, and a parallel
+     * stream adds them to a trie per thread and merges the tries, so millions of words are counted
+     * concurrently.
      *
-     * @param morseWordsSet - set of all the words that we already saw.
-     * @param morseCharMap  - Map that is represented by key- char, and value - the char in morse code.
-     * @param word          - word from the words array.
-     * @return - If the current word it gets doesn't appear in the morseWordsSet we return true, otherwise
-     * we return false.
+     * @param words - Stream of words of English letters, sequential or parallel.
+     * @return - Amount of unique words.
      */
-    private static boolean checkIfUnique
-    (Set<String> morseWordsSet, Map<Character, String> morseCharMap, String word) {
-
-        String wordInMorseForm = "";
-        String lowerCaseWord = word.toLowerCase();
-
-        for (int i = 0; i < word.length(); i++)
-            wordInMorseForm = wordInMorseForm.concat(morseCharMap.get(lowerCaseWord.charAt(i)));
+    public static int uniqueMorseRepresentations(Stream<String> words) {
+        return words.collect(MorseTrie::new, MorseTrie::add, MorseTrie::merge).size();
+    }
 
-        if (!(morseWordsSet.contains(wordInMorseForm))) {
-            morseWordsSet.add(wordInMorseForm);
-            return true;
+    /**
+     * Checks the amount of the unique Morse representations of the words of a file, in parallel.
+     *
+     * @param file - File of words, one word in a line (empty lines are ignored).
+     * @return - Amount of unique words.
+     * @throws IOException - If the file could not be read.
+     */
+    public static int uniqueMorseRepresentations(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            return uniqueMorseRepresentations(lines.parallel().map(String::trim).filter(w -> !w.isEmpty()));
         }
-        return false;
     }
-}
\ No newline at end of file
+}
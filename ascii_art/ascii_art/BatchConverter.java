@@ -0,0 +1,217 @@
+package ascii_art;
+
+import ascii_art.img_to_char.BrightnessImgCharMatcher;
+import ascii_art.img_to_char.ImageFiles;
+import ascii_art.img_to_char.RenderStats;
+import ascii_art.output.BufferedHtmlAsciiOutput;
+import image.Image;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts many images to Asci-Images without any interaction with the user.
+ * The images are converted concurrently by a bounded pool of workers, every image is written to its own
+ * HTML file, and the time of every image is reported. The brightnesses of the chars are rendered only once,
+ * since all the matchers share the glyph atlas of the font.
+ */
+public class BatchConverter {
+
+    // ========================== private constant ==========================
+
+    private static final String OPT_CHARS = "--chars";
+    private static final String OPT_WIDTH = "--width";
+    private static final String OPT_OUT = "--out";
+    private static final String OPT_THREADS = "--threads";
+    private static final String OPT_STATS = "--stats";
+    private static final String OPT_PREFIX = "--";
+    private static final String OUTPUT_SUFFIX = ".html";
+    private static final String DUPLICATE_NAME_FORMAT = "%s-%d"; // the name of the image and a counter.
+    private static final String RENAMED_MSG = "%s: written to %s, since another image has the same name";
+    private static final String DEFAULT_OUT_DIR = ".";
+    private static final int DEFAULT_CHARS_IN_ROW = 64;
+    private static final String USAGE_MSG = "USAGE: java asciiArt --batch <directory or images...> " +
+            "[--chars <range>] [--width <chars in row>] [--out <directory>] [--threads <number>] [--stats]";
+    private static final String IMAGE_DONE_MSG = "%s: %d ms";
+    private static final String IMAGE_FAILED_MSG = "%s: failed - %s";
+    private static final String NULL_IMG_MSG = "failed to open image file";
+    private static final String TOTAL_MSG = "Converted %d of %d images in %d ms";
+    private static final long NANOS_IN_MILLI = 1_000_000;
+
+    // =============================== fields ===============================
+
+    private final List<File> images = new ArrayList<>();
+    private Character[] charSet = Shell.charSetOf(Shell.INITIAL_CHARS_RANGE);
+    private int charsInRow = DEFAULT_CHARS_IN_ROW;
+    private File outDir = new File(DEFAULT_OUT_DIR);
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Map<File, RenderStats> stats = null; // the metrics of every image, only with "--stats".
+
+    // =========================== public methods ===========================
+
+    /**
+     * Parses the arguments of the batch mode and creates a converter.
+     *
+     * @param args - The arguments after the "--batch" flag.
+     * @return - The converter, or null if the arguments are invalid (a usage message is printed).
+     */
+    public static BatchConverter fromArgs(String[] args) {
+        BatchConverter converter = new BatchConverter();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (!args[i].startsWith(OPT_PREFIX)) {
+                    converter.addInput(new File(args[i]));
+                    continue;
+                }
+                if (args[i].equals(OPT_STATS)) {
+                    converter.stats = new ConcurrentHashMap<>();
+                    continue;
+                }
+                if (i + 1 == args.length)
+                    throw new IllegalArgumentException();
+                String option = args[i];
+                String value = args[++i];
+                switch (option) {
+                    case OPT_CHARS:
+                        converter.charSet = Shell.charSetOf(value);
+                        break;
+                    case OPT_WIDTH:
+                        converter.charsInRow = Integer.parseInt(value);
+                        break;
+                    case OPT_OUT:
+                        converter.outDir = new File(value);
+                        break;
+                    case OPT_THREADS:
+                        converter.threads = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException();
+                }
+            }
+        } catch (IllegalArgumentException e) { // also thrown by parseInt on an invalid number.
+            converter = null;
+        }
+        if (converter == null || converter.images.isEmpty() || converter.charSet == null
+                || converter.charsInRow <= 0 || converter.threads <= 0) {
+            System.err.println(USAGE_MSG);
+            return null;
+        }
+        return converter;
+    }
+
+    /**
+     * Converts all the images and reports the time of every image, in the order of the input.
+     *
+     * @throws InterruptedException - If the thread was interrupted while waiting for the workers.
+     */
+    public void run() throws InterruptedException {
+        outDir.mkdirs();
+        long start = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            List<File> outFiles = outputFiles();
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < images.size(); i++) {
+                File image = images.get(i);
+                File outFile = outFiles.get(i);
+                results.add(workers.submit(() -> convert(image, outFile)));
+            }
+
+            int converted = 0;
+            for (int i = 0; i < images.size(); i++) {
+                try {
+                    long nanos = results.get(i).get();
+                    System.out.println(String.format(IMAGE_DONE_MSG, images.get(i), nanos / NANOS_IN_MILLI));
+                    if (stats != null)
+                        System.out.println(stats.get(images.get(i)));
+                    converted++;
+                } catch (ExecutionException e) {
+                    System.out.println(String.format(IMAGE_FAILED_MSG, images.get(i),
+                            e.getCause().getMessage()));
+                }
+            }
+            System.out.println(String.format(TOTAL_MSG, converted, images.size(),
+                    (System.nanoTime() - start) / NANOS_IN_MILLI));
+        } finally {
+            workers.shutdownNow();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Adds an input of the batch - an image, or all the files of a directory.
+     *
+     * @param input - An image or a directory of images.
+     */
+    private void addInput(File input) {
+        File[] files = input.listFiles(File::isFile);
+        if (files == null) {
+            images.add(input);
+            return;
+        }
+        Arrays.sort(files);
+        images.addAll(Arrays.asList(files));
+    }
+
+    /**
+     * Chooses the HTML file of every image - the name of the image with the HTML suffix, in the output
+     * directory. Images with the same name (from different directories, or the same image twice) get a
+     * counter after the name, so no image overwrites the file of another one.
+     *
+     * @return - The HTML files, in the order of the images.
+     */
+    private List<File> outputFiles() {
+        Set<String> names = new HashSet<>();
+        List<File> outFiles = new ArrayList<>(images.size());
+        for (File image : images) {
+            String name = image.getName();
+            for (int i = 2; !names.add(name); i++)
+                name = String.format(DUPLICATE_NAME_FORMAT, image.getName(), i);
+            File outFile = new File(outDir, name + OUTPUT_SUFFIX);
+            if (!name.equals(image.getName()))
+                System.out.println(String.format(RENAMED_MSG, image, outFile));
+            outFiles.add(outFile);
+        }
+        return outFiles;
+    }
+
+    /**
+     * Converts a single image to an HTML file, and keeps its metrics if asked to.
+     *
+     * @param file    - The image file.
+     * @param outFile - The HTML file.
+     * @return - The time the conversion took, in nanoseconds.
+     * @throws IllegalStateException - If the image could not be opened.
+     */
+    private long convert(File file, File outFile) {
+        long start = System.nanoTime();
+        Image img = ImageFiles.open(file.getPath());
+        if (img == null)
+            throw new IllegalStateException(NULL_IMG_MSG);
+        BrightnessImgCharMatcher charMatcher = new BrightnessImgCharMatcher(img, Shell.FONT_NAME);
+        RenderStats imageStats = charMatcher.startRender();
+        long matchStart = System.nanoTime();
+        char[][] chars = charMatcher.chooseChars(Math.min(charsInRow, img.getWidth()), charSet);
+        imageStats.endMatching(System.nanoTime() - matchStart, chars);
+
+        imageStats.startOutput();
+        new BufferedHtmlAsciiOutput(outFile.getPath(), Shell.FONT_NAME).output(chars);
+        imageStats.endOutput(outFile.length());
+        if (stats != null)
+            stats.put(file, imageStats);
+        return System.nanoTime() - start;
+    }
+}
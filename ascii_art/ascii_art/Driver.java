@@ -1,7 +1,21 @@
 package ascii_art;
 
+import ascii_art.img_to_char.FrameSequenceConverter;
+import ascii_art.img_to_char.GlyphBrightnessAtlas;
+import ascii_art.img_to_char.ImageFiles;
+import ascii_art.img_to_char.RawImageWriter;
+import ascii_art.img_to_char.StreamingImgCharMatcher;
+import ascii_art.output.AsciiRowOutput;
+import ascii_art.output.BufferedConsoleAsciiOutput;
+import ascii_art.output.BufferedHtmlAsciiOutput;
+import ascii_art.output.ConsoleAsciiRowOutput;
 import image.Image;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Logger;
 
 /**
@@ -13,26 +27,166 @@ public class Driver {
 
     private static final String NUM_OF_PARAM_ILLEGAL_MSG = "USAGE: java asciiArt ";
     private static final String NULL_IMG_MSG = "Failed to open image file ";
+    private static final String GLYPH_CACHE_DIR_PROPERTY = "java.io.tmpdir";
+    private static final String STREAM_FLAG = "--stream";
+    private static final String BATCH_FLAG = "--batch";
+    private static final String STREAM_USAGE_MSG =
+            "USAGE: java asciiArt --stream <image> <chars in row> [chars range] [html file]";
+    private static final int STREAM_MIN_ARGS = 3;
+    private static final int STREAM_RANGE_ARGS = 4;
+    private static final int STREAM_MAX_ARGS = 5;
+    private static final String FRAMES_FLAG = "--frames";
+    private static final String FRAMES_USAGE_MSG =
+            "USAGE: java asciiArt --frames <directory of frames> <chars in row> <fps> [chars range]";
+    private static final String FRAMES_STATS_MSG = "Matched %d sub-images, kept %d from the previous frame";
+    private static final String CURSOR_HOME = "\u001b[H"; // moves the cursor to the top-left corner.
+    private static final int FRAMES_MIN_ARGS = 4;
+    private static final int FRAMES_MAX_ARGS = 5;
+    private static final String TO_RAW_FLAG = "--to-raw";
+    private static final String TO_RAW_USAGE_MSG = "USAGE: java asciiArt --to-raw <image> <raw file> [grey]";
+    private static final String GREY_PARAM = "grey";
+    private static final int TO_RAW_MIN_ARGS = 3;
+    private static final int TO_RAW_MAX_ARGS = 4;
 
     // ================================ Main ================================
 
     /**
      * The main function - creates a Shell objects and run it in order to create an Ascii image.
+     * With the "--stream" flag, the image is converted to the console (or to an HTML file) row by row
+     * instead, without loading the whole image to memory, with the "--batch" flag many images are converted to HTML
+     * files without any interaction (see BatchConverter), with the "--frames" flag a directory of frames
+     * is played as Asci-Images on the console, and with the "--to-raw" flag an image is converted once to a
+     * raw file that the next runs map instead of decoding (see MappedRawImage).
      *
-     * @param args - Path of the image.
+     * @param args - Path of the image, and optionally path of a script of Shell commands to run instead of
+     *             reading the commands from the user.
      * @throws Exception - It is possible to throw exceptions.
      */
     public static void main(String[] args) throws Exception {
-        if (args.length != 1) {
+        GlyphBrightnessAtlas.setCacheDirectory(Paths.get(System.getProperty(GLYPH_CACHE_DIR_PROPERTY)));
+        if (args.length > 0 && args[0].equals(STREAM_FLAG)) {
+            stream(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals(TO_RAW_FLAG)) {
+            toRaw(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals(FRAMES_FLAG)) {
+            frames(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals(BATCH_FLAG)) {
+            BatchConverter converter = BatchConverter.fromArgs(Arrays.copyOfRange(args, 1, args.length));
+            if (converter != null)
+                converter.run();
+            return;
+        }
+        if (args.length != 1 && args.length != 2) {
             System.err.println(NUM_OF_PARAM_ILLEGAL_MSG);
             return;
         }
-        Image img = Image.fromFile(args[0]);
+        Image img = ImageFiles.open(args[0]);
         if (img == null) {
             Logger.getGlobal().severe(NULL_IMG_MSG +
                     args[0]);
             return;
         }
-        new Shell(img).run();
+        if (args.length == 2)
+            new Shell(img).runScript(Paths.get(args[1]));
+        else
+            new Shell(img).run();
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Converts an image to the console, or to an HTML file, with the streaming matcher.
+     *
+     * @param args - "--stream", path of the image, number of chars in a row, optionally a range of chars and
+     *             optionally an HTML file to write instead of the console.
+     * @throws IOException - If the image could not be read.
+     */
+    private static void stream(String[] args) throws IOException {
+        if (args.length < STREAM_MIN_ARGS || args.length > STREAM_MAX_ARGS) {
+            System.err.println(STREAM_USAGE_MSG);
+            return;
+        }
+        int charsInRow;
+        try {
+            charsInRow = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            System.err.println(STREAM_USAGE_MSG);
+            return;
+        }
+        Character[] charSet =
+                Shell.charSetOf(args.length >= STREAM_RANGE_ARGS ? args[3] : Shell.INITIAL_CHARS_RANGE);
+        if (charSet == null || charsInRow <= 0) {
+            System.err.println(STREAM_USAGE_MSG);
+            return;
+        }
+        try (AsciiRowOutput output = args.length == STREAM_MAX_ARGS ?
+                new BufferedHtmlAsciiOutput(args[4], Shell.FONT_NAME) : new ConsoleAsciiRowOutput()) {
+            new StreamingImgCharMatcher(Shell.FONT_NAME)
+                    .convert(new File(args[1]), charsInRow, charSet, output);
+        } catch (IllegalArgumentException e) { // more chars in a row than pixels in the width of the image.
+            System.err.println(STREAM_USAGE_MSG);
+        }
+    }
+
+    /**
+     * Plays a directory of frames on the console with the frame-sequence converter.
+     *
+     * @param args - "--frames", path of the directory, number of chars in a row, frames per second and
+     *             optionally a range of chars.
+     * @throws InterruptedException - If the thread was interrupted while the frames were converted.
+     * @throws ExecutionException   - If a frame could not be converted.
+     */
+    private static void frames(String[] args) throws InterruptedException, ExecutionException {
+        if (args.length < FRAMES_MIN_ARGS || args.length > FRAMES_MAX_ARGS) {
+            System.err.println(FRAMES_USAGE_MSG);
+            return;
+        }
+        int charsInRow;
+        double fps;
+        try {
+            charsInRow = Integer.parseInt(args[2]);
+            fps = Double.parseDouble(args[3]);
+        } catch (NumberFormatException e) {
+            System.err.println(FRAMES_USAGE_MSG);
+            return;
+        }
+        Character[] charSet =
+                Shell.charSetOf(args.length == FRAMES_MAX_ARGS ? args[4] : Shell.INITIAL_CHARS_RANGE);
+        File[] frames = new File(args[1]).listFiles(File::isFile);
+        if (charSet == null || charsInRow <= 0 || fps < 0 || frames == null) {
+            System.err.println(FRAMES_USAGE_MSG);
+            return;
+        }
+        Arrays.sort(frames);
+        BufferedConsoleAsciiOutput console = new BufferedConsoleAsciiOutput();
+        FrameSequenceConverter converter = new FrameSequenceConverter(Shell.FONT_NAME);
+        converter.convert(Arrays.asList(frames), charsInRow, charSet, fps, chars -> {
+            System.out.print(CURSOR_HOME);
+            console.output(chars);
+        });
+        System.out.println(String.format(FRAMES_STATS_MSG, converter.getMatchedTiles(),
+                converter.getReusedTiles()));
+    }
+
+    /**
+     * Converts an image to a raw image file.
+     *
+     * @param args - "--to-raw", path of the image, path of the raw file and optionally "grey" to keep only
+     *             the grey pixels.
+     * @throws IOException - If the image could not be read or the raw file could not be written.
+     */
+    private static void toRaw(String[] args) throws IOException {
+        if (args.length < TO_RAW_MIN_ARGS || args.length > TO_RAW_MAX_ARGS
+                || (args.length == TO_RAW_MAX_ARGS && !args[3].equals(GREY_PARAM))) {
+            System.err.println(TO_RAW_USAGE_MSG);
+            return;
+        }
+        RawImageWriter.convert(new File(args[1]), Paths.get(args[2]), args.length == TO_RAW_MAX_ARGS);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,141 @@
+package ascii_art;
+
+import java.util.Arrays;
+
+/**
+ * A set of the Morse representations of words, kept as a binary trie of primitive arrays - every node has a
+ * child for a dot and a child for a dash, and a node is marked if a word's representation ends in it.
+ * A word is added by walking the dots and dashes of its letters straight from a table of bit codes, so no
+ * String is built for a word and no object is created for a node. Two tries can be merged, so words can be
+ * added by several threads, each to its own trie (see Algorithms.uniqueMorseRepresentations).
+ */
+public class MorseTrie {
+
+    // ========================== private constant ==========================
+
+    private static final int NUM_OF_SYMBOLS = 2; // a dot and a dash.
+    private static final int DOT = 0;
+    private static final int DASH = 1;
+    private static final int NONE = 0; // no child - the root is never a child.
+    private static final int ROOT = 0;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int GROWTH_FACTOR = 2;
+    private static final char FIRST_LETTER = 'a';
+    private static final char LAST_LETTER = 'z';
+    private static final String ILLEGAL_CHAR_MSG = "Not an English letter: ";
+
+    private static final String[] MORSE_CODES = new String[]{
+            ".-", "-...", "-.-.", "-..", ".", "..-.", "--.", "....",
+            "..", ".---", "-.-", ".-..", "--", "-.", "---", ".--.", "--.-",
+            ".-.", "...", "-", "..-", "...-", ".--", "-..-", "-.--", "--.."};
+    private static final int[] CODE_BITS = new int[MORSE_CODES.length]; // bit i is the i-th symbol.
+    private static final int[] CODE_LENGTHS = new int[MORSE_CODES.length];
+
+    static {
+        for (int letter = 0; letter < MORSE_CODES.length; letter++) {
+            String code = MORSE_CODES[letter];
+            for (int i = 0; i < code.length(); i++)
+                if (code.charAt(i) == '-')
+                    CODE_BITS[letter] |= DASH << i;
+            CODE_LENGTHS[letter] = code.length();
+        }
+    }
+
+    // =============================== fields ===============================
+
+    private int[] children = new int[INITIAL_CAPACITY * NUM_OF_SYMBOLS]; // node * 2 + symbol.
+    private boolean[] marked = new boolean[INITIAL_CAPACITY];
+    private int numOfNodes = 1; // the root.
+    private int size = 0;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Adds the Morse representation of a word.
+     *
+     * @param word - A word of English letters, in any case.
+     * @return - true if no word with the same representation was added before, false otherwise.
+     * @throws IllegalArgumentException - If the word has a char that is not an English letter.
+     */
+    public boolean add(String word) {
+        int node = ROOT;
+        for (int i = 0; i < word.length(); i++) {
+            char c = Character.toLowerCase(word.charAt(i));
+            if (c < FIRST_LETTER || c > LAST_LETTER)
+                throw new IllegalArgumentException(ILLEGAL_CHAR_MSG + word.charAt(i));
+            int bits = CODE_BITS[c - FIRST_LETTER];
+            for (int k = 0; k < CODE_LENGTHS[c - FIRST_LETTER]; k++)
+                node = childOrNew(node, (bits >> k) & DASH);
+        }
+        return mark(node);
+    }
+
+    /**
+     * Adds all the representations of another trie to this one.
+     *
+     * @param other - Another trie, which is not changed.
+     */
+    public void merge(MorseTrie other) {
+        int[] stack = new int[INITIAL_CAPACITY * NUM_OF_SYMBOLS]; // pairs of (this node, other node).
+        int top = 0;
+        stack[top++] = ROOT;
+        stack[top++] = ROOT;
+        while (top > 0) {
+            int otherNode = stack[--top];
+            int node = stack[--top];
+            if (other.marked[otherNode])
+                mark(node);
+            for (int symbol = DOT; symbol <= DASH; symbol++) {
+                int otherChild = other.children[otherNode * NUM_OF_SYMBOLS + symbol];
+                if (otherChild == NONE)
+                    continue;
+                if (top + NUM_OF_SYMBOLS > stack.length)
+                    stack = Arrays.copyOf(stack, stack.length * GROWTH_FACTOR);
+                stack[top++] = childOrNew(node, symbol);
+                stack[top++] = otherChild;
+            }
+        }
+    }
+
+    /**
+     * @return - The number of different Morse representations in the trie.
+     */
+    public int size() {
+        return size;
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * @param node   - A node.
+     * @param symbol - DOT or DASH.
+     * @return - The child of the node for the symbol, which is created if it does not exist.
+     */
+    private int childOrNew(int node, int symbol) {
+        int cell = node * NUM_OF_SYMBOLS + symbol;
+        int child = children[cell];
+        if (child != NONE)
+            return child;
+        if (numOfNodes == marked.length) {
+            marked = Arrays.copyOf(marked, marked.length * GROWTH_FACTOR);
+            children = Arrays.copyOf(children, children.length * GROWTH_FACTOR);
+        }
+        child = numOfNodes++;
+        children[cell] = child;
+        return child;
+    }
+
+    /**
+     * Marks the end of a representation.
+     *
+     * @param node - The node the representation ends in.
+     * @return - true if the node was not marked before, false otherwise.
+     */
+    private boolean mark(int node) {
+        if (marked[node])
+            return false;
+        marked[node] = true;
+        size++;
+        return true;
+    }
+}
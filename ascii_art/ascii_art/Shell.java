@@ -1,12 +1,26 @@
 package ascii_art;
 
 import ascii_art.img_to_char.BrightnessImgCharMatcher;
+import ascii_art.img_to_char.ColorImgCharMatcher;
+import ascii_art.img_to_char.DitheringImgCharMatcher;
+import ascii_art.img_to_char.ImgCharMatcher;
+import ascii_art.img_to_char.RenderStats;
+import ascii_art.img_to_char.ShapeImgCharMatcher;
+import ascii_art.output.BufferedConsoleAsciiOutput;
+import ascii_art.output.BufferedHtmlAsciiOutput;
+import ascii_art.output.ColorHtmlAsciiOutput;
 import ascii_output.AsciiOutput;
-import ascii_output.ConsoleAsciiOutput;
-import ascii_output.HtmlAsciiOutput;
 import image.Image;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 /**
@@ -15,6 +29,11 @@ import java.util.stream.Stream;
  */
 public class Shell {
 
+    // ========================== package constants ==========================
+
+    static final String FONT_NAME = "Courier New";
+    static final String INITIAL_CHARS_RANGE = "0-9";
+
     // ========================== private constant ==========================
 
     private static final String CMD_EXIT = "exit";
@@ -28,6 +47,19 @@ public class Shell {
     private static final String CMD_RES = "res";
     private static final String CMD_CONSOLE = "console";
     private static final String CMD_RENDER = "render";
+    private static final String CMD_PARALLEL = "parallel";
+    private static final String ON_PARAM = "on";
+    private static final String OFF_PARAM = "off";
+    private static final String CMD_COLOR = "color";
+    private static final String CMD_STATS = "stats";
+    private static final String CMD_VERBOSE = "verbose";
+    private static final String CMD_OUT = "out";
+    private static final String ERR_OUTPUT_FAILED = "ERROR: Failed to write the Asci-Image: ";
+    private static final String NO_RENDER_MSG = "No render yet.";
+    private static final String CMD_MATCHER = "matcher";
+    private static final String BRIGHTNESS_PARAM = "brightness";
+    private static final String DITHER_PARAM = "dither";
+    private static final String SHAPE_PARAM = "shape";
     private static final String ERR_INVALID_INPUT = "ERROR: You entered an invalid input.";
     private static final int INITIAL_CHARS_IN_ROW = 64;
     private static final char LAST_CHAR = '~';
@@ -38,9 +70,7 @@ public class Shell {
     private static final String WIDTH_SET_MSG = "Width set to %d";
     private static final String UP_PARAM = "up";
     private static final String DOWN_PARAM = "down";
-    private static final String FONT_NAME = "Courier New";
     private static final String OUTPUT_FILENAME = "out.html";
-    private static final String INITIAL_CHARS_RANGE = "0-9";
     private static final String EMPTY_STRING = "";
     private static final int BIGGEST_CHAR_VALUE = 127;
     private static final int NUM_TO_EXTEND_OR_REDUCE_RES = 2;
@@ -52,9 +82,20 @@ public class Shell {
     private final int minCharsInRow;
     private final int maxCharsInRow;
     private int charsInRow;
-    private BrightnessImgCharMatcher charMatcher;
-    private AsciiOutput output;
+    private final BrightnessImgCharMatcher brightnessMatcher;
+    private final DitheringImgCharMatcher ditheringMatcher;
+    private ShapeImgCharMatcher shapeMatcher = null; // created on the first "matcher shape".
+    private ImgCharMatcher charMatcher; // the matcher of the next render - one of the three above.
+    private String outputFilename = OUTPUT_FILENAME; // the HTML file of the next renders.
+    private ExecutorService outputWriter = null; // writes the renders in the background, only in a script.
+    private Future<?> pendingOutput = null; // the render that is being written in the background.
     private boolean consoleRenderer = false;
+    private ColorImgCharMatcher colorMatcher = null; // created on the first "color on".
+    private boolean colorRenderer = false; // whether the HTML output is colored.
+    // the fields are used only by the thread of the commands - a render that is written in the background
+    // gets everything it needs when it is submitted.
+    private RenderStats lastStats = null; // the metrics of the last render, ended once it is written.
+    private boolean verbose = false; // whether to print the metrics after every render.
 
     // =========================== public methods ===========================
 
@@ -71,7 +112,9 @@ public class Shell {
         charsInRow = Math.max(Math.min(INITIAL_CHARS_IN_ROW, maxCharsInRow),
                 minCharsInRow);
 
-        charMatcher = new BrightnessImgCharMatcher(img, FONT_NAME);
+        brightnessMatcher = new BrightnessImgCharMatcher(img, FONT_NAME);
+        ditheringMatcher = new DitheringImgCharMatcher(brightnessMatcher);
+        charMatcher = brightnessMatcher;
 
 
         addOrRemoveChars(INITIAL_CHARS_RANGE, CMD_ADD);
@@ -82,10 +125,63 @@ public class Shell {
      * operation to execute. In case of invalid input it prints an error message to std.out.
      */
     public void run() {
-        Scanner scanner = new Scanner(System.in);
-        System.out.print(INIT_CMD);
-        String cmd = scanner.next().trim();
-        while (true) {
+        run(new Scanner(System.in), true);
+    }
+
+    /**
+     * Executes a script of commands - one command in a line, in the same syntax as the user's input.
+     * The renders are pipelined - the Asci-Image of a render is written by a background thread while the
+     * next commands are executed, so many variants of an image are made in one pass. At most one render
+     * is written at a time, in the order of the script.
+     *
+     * @param script - The file of the script.
+     * @throws IOException - If the script could not be read.
+     */
+    public void runScript(Path script) throws IOException {
+        outputWriter = Executors.newSingleThreadExecutor();
+        try (Scanner scanner = new Scanner(script)) {
+            run(scanner, false);
+        } finally {
+            waitForOutput();
+            outputWriter.shutdown();
+            try { // the lines printed after the last render.
+                outputWriter.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            outputWriter = null;
+        }
+    }
+
+    // ======================= package-private methods =======================
+
+    /**
+     * Creates a char-set from a range, in the same syntax as the "add" command.
+     *
+     * @param range - The range of chars.
+     * @return - The chars of the range, or null if the range is invalid.
+     */
+    static Character[] charSetOf(String range) {
+        char[] bounds = parseCharRange(range);
+        if (bounds == null)
+            return null;
+        return Stream.iterate(bounds[0], c -> c <= bounds[1], c -> (char) ((int) c + 1))
+                .toArray(Character[]::new);
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Executes commands until "exit" or until the input ends.
+     *
+     * @param scanner     - The input of the commands.
+     * @param interactive - true to print a prompt before every command, false otherwise.
+     */
+    private void run(Scanner scanner, boolean interactive) {
+        if (interactive)
+            System.out.print(INIT_CMD);
+        while (scanner.hasNext()) {
+            String cmd = scanner.next().trim();
             var param = scanner.nextLine().trim();
             if (cmd.equals(CMD_EXIT) && param.equals(EMPTY_STRING))
                 break;
@@ -97,6 +193,27 @@ public class Shell {
                 case CMD_RES:
                     resChange(param);
                     break;
+                case CMD_MATCHER:
+                    matcherChange(param);
+                    break;
+                case CMD_OUT:
+                    outputChange(param);
+                    break;
+                case CMD_PARALLEL:
+                    parallelChange(param);
+                    break;
+                case CMD_COLOR:
+                    colorChange(param);
+                    break;
+                case CMD_VERBOSE:
+                    verboseChange(param);
+                    break;
+                case CMD_STATS:
+                    if ((param.equals(EMPTY_STRING))) {
+                        waitForOutput();
+                        println(lastStats == null ? NO_RENDER_MSG : lastStats);
+                        break;
+                    }
                 case CMD_CONSOLE:
                     if ((param.equals(EMPTY_STRING))) {
                         consoleRenderer = true;
@@ -113,31 +230,149 @@ public class Shell {
                         break;
                     }
                 default:
-                    System.out.println(ERR_INVALID_INPUT);
+                    println(ERR_INVALID_INPUT);
                     break;
             }
-            System.out.print(INIT_CMD);
-            cmd = scanner.next();
+            if (interactive)
+                System.out.print(INIT_CMD);
         }
     }
 
-    // =========================== private methods ===========================
-
     /**
      * Is Called when the user inserts the command "render", and it handles this case.
+     * The metrics of the render are kept for the "stats" command, and printed right away after "verbose on".
+     * In a script, the Asci-Image is written in the background while the next commands are executed.
      */
     private void render() {
         if (img != null) {
             Character[] charArray = new Character[charSet.size()];
             charSet.toArray(charArray);
+            boolean color = colorRenderer && !consoleRenderer;
 
-            char[][] chars = charMatcher.chooseChars(charsInRow, charArray);
-            if (consoleRenderer)
-                output = new ConsoleAsciiOutput();
-            else
-                output = new HtmlAsciiOutput(OUTPUT_FILENAME, FONT_NAME);
+            RenderStats stats = brightnessMatcher.startRender();
+            long start = System.nanoTime();
+            boolean singlePass = color && charMatcher == brightnessMatcher; // the chars and colors together.
+            char[][] chars = singlePass ? colorMatcher.chooseChars(charsInRow, charArray) :
+                    charMatcher.chooseChars(charsInRow, charArray);
+            int[][] colors = singlePass ? colorMatcher.getColors() :
+                    color ? colorMatcher.colorsOf(charsInRow) : null;
+            stats.endMatching(System.nanoTime() - start, chars);
+            boolean console = consoleRenderer;
+            String filename = outputFilename;
+            boolean printStats = verbose;
+            lastStats = stats;
+
+            Runnable write = () -> write(chars, colors, console, filename, stats, printStats);
+            if (outputWriter == null) {
+                write.run();
+                return;
+            }
+            waitForOutput(); // at most one render is written at a time.
+            pendingOutput = outputWriter.submit(write);
+        }
+    }
+
+    /**
+     * Writes the Asci-Image of a render and ends its metrics.
+     *
+     * @param chars      - The Asci-Image.
+     * @param colors     - The colors of the chars for the colored HTML output, or null.
+     * @param console    - true to write to the console, false to write to an HTML file.
+     * @param filename   - The HTML file of the render.
+     * @param stats      - The metrics of the render.
+     * @param printStats - true to print the metrics once the render is written.
+     */
+    private static void write(char[][] chars, int[][] colors, boolean console, String filename,
+                              RenderStats stats, boolean printStats) {
+        stats.startOutput();
+        long bytesWritten;
+        if (colors != null) {
+            new ColorHtmlAsciiOutput(filename, FONT_NAME).output(chars, colors);
+            bytesWritten = new File(filename).length();
+        } else if (console) {
+            BufferedConsoleAsciiOutput output = new BufferedConsoleAsciiOutput();
+            output.output(chars);
+            bytesWritten = output.getBytesWritten();
+        } else {
+            AsciiOutput output = new BufferedHtmlAsciiOutput(filename, FONT_NAME);
             output.output(chars);
+            bytesWritten = new File(filename).length();
         }
+        stats.endOutput(bytesWritten);
+        if (printStats)
+            System.out.println(stats);
+    }
+
+    /**
+     * Waits until the render that is being written in the background (if any) is written.
+     */
+    private void waitForOutput() {
+        if (pendingOutput == null)
+            return;
+        try {
+            pendingOutput.get();
+        } catch (ExecutionException e) {
+            println(ERR_OUTPUT_FAILED + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pendingOutput = null;
+    }
+
+    /**
+     * Sets the HTML file of the next renders.
+     *
+     * @param s - the input from the user - the name of the file.
+     */
+    private void outputChange(String s) {
+        if (s.equals(EMPTY_STRING) || s.contains(" "))
+            println(ERR_INVALID_INPUT);
+        else
+            outputFilename = s;
+    }
+
+    /**
+     * Turns the parallel conversion on or off according to the input.
+     *
+     * @param s - the input from the user - "on" or "off".
+     */
+    private void parallelChange(String s) {
+        if (s.equals(ON_PARAM))
+            brightnessMatcher.setParallel(true);
+        else if (s.equals(OFF_PARAM))
+            brightnessMatcher.setParallel(false);
+        else
+            println(ERR_INVALID_INPUT);
+    }
+
+    /**
+     * Turns the colored HTML output on or off according to the input.
+     *
+     * @param s - the input from the user - "on" or "off".
+     */
+    private void colorChange(String s) {
+        if (s.equals(ON_PARAM)) {
+            if (colorMatcher == null)
+                colorMatcher = new ColorImgCharMatcher(brightnessMatcher);
+            colorRenderer = true;
+        } else if (s.equals(OFF_PARAM))
+            colorRenderer = false;
+        else
+            println(ERR_INVALID_INPUT);
+    }
+
+    /**
+     * Turns the printing of the metrics after every render on or off according to the input.
+     *
+     * @param s - the input from the user - "on" or "off".
+     */
+    private void verboseChange(String s) {
+        if (s.equals(ON_PARAM))
+            verbose = true;
+        else if (s.equals(OFF_PARAM))
+            verbose = false;
+        else
+            println(ERR_INVALID_INPUT);
     }
 
     /**
@@ -147,32 +382,75 @@ public class Shell {
      */
     private void resChange(String s) {
         if (s == null)
-            System.out.println(ERR_INVALID_INPUT);
+            println(ERR_INVALID_INPUT);
 
         else if (s.equals(UP_PARAM)) {
             if (charsInRow * NUM_TO_EXTEND_OR_REDUCE_RES > maxCharsInRow)
-                System.out.println(ERR_EXCEEDING_MAX);
+                println(ERR_EXCEEDING_MAX);
             else {
                 charsInRow *= NUM_TO_EXTEND_OR_REDUCE_RES;
-                System.out.println(String.format(WIDTH_SET_MSG, charsInRow));
+                println(String.format(WIDTH_SET_MSG, charsInRow));
             }
         } else if (s.equals(DOWN_PARAM)) {
             if (charsInRow / NUM_TO_EXTEND_OR_REDUCE_RES < minCharsInRow)
-                System.out.println(ERR_EXCEEDING_MAX);
+                println(ERR_EXCEEDING_MAX);
             else {
                 charsInRow /= NUM_TO_EXTEND_OR_REDUCE_RES;
-                System.out.println(String.format(WIDTH_SET_MSG, charsInRow));
+                println(String.format(WIDTH_SET_MSG, charsInRow));
             }
         } else
-            System.out.println(ERR_INVALID_INPUT);
+            println(ERR_INVALID_INPUT);
+    }
+
+    /**
+     * Chooses the matcher of the next renders according to the input.
+     *
+     * @param s - the input from the user - "brightness", "dither" or "shape".
+     */
+    private void matcherChange(String s) {
+        if (s.equals(BRIGHTNESS_PARAM))
+            charMatcher = brightnessMatcher;
+        else if (s.equals(DITHER_PARAM))
+            charMatcher = ditheringMatcher;
+        else if (s.equals(SHAPE_PARAM)) {
+            if (shapeMatcher == null)
+                shapeMatcher = new ShapeImgCharMatcher(brightnessMatcher, FONT_NAME);
+            charMatcher = shapeMatcher;
+        } else
+            println(ERR_INVALID_INPUT);
+    }
+
+    /**
+     * Prints a line to the console (see print).
+     *
+     * @param line - The line.
+     */
+    private void println(Object line) {
+        print(() -> System.out.println(line));
+    }
+
+    /**
+     * Prints to the console. In a script the printing is done by the thread that writes the renders, after
+     * the renders of the commands before it, so the output of a script is in the order of its commands and
+     * never interleaves with an Asci-Image that is printed to the console.
+     *
+     * @param printing - Prints to the console.
+     */
+    private void print(Runnable printing) {
+        if (outputWriter == null)
+            printing.run();
+        else
+            outputWriter.execute(printing);
     }
 
     /**
-     * This function prints the char-set.
+     * This function prints the char-set. The line is built here, since in a script it is printed by another
+     * thread, while the next commands may already change the char-set.
      */
     private void showChars() {
-        charSet.stream().sorted().forEach(c -> System.out.print(c + SPACE));
-        System.out.println();
+        StringBuilder line = new StringBuilder();
+        charSet.stream().sorted().forEach(c -> line.append(c + SPACE));
+        println(line.toString());
     }
 
     /**
@@ -185,7 +463,7 @@ public class Shell {
         char[] range = parseCharRange(s);
 
         if (range == null) {
-            System.out.println(ERR_INVALID_INPUT);
+            println(ERR_INVALID_INPUT);
             return;
         }
         if (cmd.equals(CMD_ADD))
@@ -0,0 +1,29 @@
+package ascii_art.img_to_char;
+
+import image.Image;
+
+import java.awt.*;
+
+/**
+ * An image that can give all its pixels at once, packed as ARGB ints.
+ * The matchers read the grey pixels of such an image straight from the packed array, without creating a
+ * Color object for every pixel.
+ */
+public interface ArgbImage extends Image {
+
+    /**
+     * @return - The pixels of the image, row after row (the pixel (x, y) is in cell y * width + x), packed as
+     * ARGB. The array is read only and must not be changed.
+     */
+    int[] getArgb();
+
+    /**
+     * @param x - The x coordinate.
+     * @param y - The y coordinate.
+     * @return - The color of the pixel.
+     */
+    @Override
+    default Color getPixel(int x, int y) {
+        return new Color(getArgb()[y * getWidth() + x]);
+    }
+}
@@ -3,29 +3,30 @@ package ascii_art.img_to_char;
 
 import image.Image;
 
-import java.awt.*;
-import java.util.HashMap;
+import java.util.stream.IntStream;
 
 /**
  * The main purpose of this class is to support "chooseChars" function - to take an image
  * and to return a compatible Asci-Image.
  */
-public class BrightnessImgCharMatcher {
+public class BrightnessImgCharMatcher implements ImgCharMatcher {
 
     // ========================== private constant ==========================
 
     private static final int IMAGE_PIXELS = 16;
-    private static final int RGB = 255;
-    private static final double MULT_RED_TO_GREY = 0.2126;
-    private static final double MULT_GREEN_TO_GREY = 0.7152;
-    private static final double MULT_BLUE_TO_GREY = 0.0722;
+    private static final long DEFAULT_CACHE_BUDGET_BYTES = 32L << 20;
 
     // =============================== fields ===============================
 
     private final Image image;
     private final String font;
-    private final HashMap<Image, Double> cache = new HashMap<>();
-
+    private final TileBrightnessCache cache;
+    private BrightnessPyramid pyramid; // built once, on the first render at a power-of-two size.
+    private SummedAreaTable brightnessTable; // built once, when it is first needed.
+    private boolean parallel = false;
+    private String lastCharSet = null;
+    private CharBrightnessLookup lastLookup = null; // the lookup table of the char-set of the last render.
+    private RenderStats stats; // the metrics of the current render.
 
     // =========================== public methods ===========================
 
@@ -36,93 +37,215 @@ public class BrightnessImgCharMatcher {
      * @param font  - The font of the image.
      */
     public BrightnessImgCharMatcher(Image image, String font) {
+        this(image, font, DEFAULT_CACHE_BUDGET_BYTES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param image            - An image to work with.
+     * @param font             - The font of the image.
+     * @param cacheBudgetBytes - The maximal memory, in bytes, of the cached brightnesses of sub-images.
+     */
+    public BrightnessImgCharMatcher(Image image, String font, long cacheBudgetBytes) {
         this.image = image;
         this.font = font;
+        this.cache = new TileBrightnessCache(cacheBudgetBytes);
+        this.stats = new RenderStats(cache);
     }
 
     /**
      * The function takes an image divides it to sub-images and find a compatible Asci-Image.
+     * The brightnesses of the sub-images of the last render are kept, and the lookup table of the char-set
+     * is created again only if the char-set changed, so after "add" or "remove" only the mapping from
+     * brightnesses to chars is done again.
      *
      * @param numCharsInRow - The number of the chars we want in each row in the Asci-Image.
      * @param charSet       - The possible letters that can appear in the Asci-Image.
      * @return - A compatible Asci-Image.
      */
+    @Override
     public char[][] chooseChars(int numCharsInRow, Character[] charSet) {
         int pixels = image.getWidth() / numCharsInRow;
-        double[] brightnessArray = charsArrayToBrightnessArray(charSet);
-        return convertImageToAscii(charSet, newCharBrightness(brightnessArray), pixels);
+        return convertImageToAscii(lookupOf(charSet), pixels);
+    }
+
+    /**
+     * Sets whether the conversion should split the Asci-Image to rows and fill them concurrently.
+     * The result is identical to the serial conversion.
+     *
+     * @param parallel - true for the parallel conversion, false for the serial one.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Starts the metrics of a new render. The matcher adds the time of the chars and brightness stages to
+     * them, also when the render is done by another matcher that uses this one.
+     *
+     * @return - The metrics of the new render.
+     */
+    public RenderStats startRender() {
+        stats = new RenderStats(cache);
+        return stats;
+    }
+
+    /**
+     * @return - The cache of the brightnesses of the sub-images, with its hit and miss counters.
+     */
+    public TileBrightnessCache getCache() {
+        return cache;
+    }
+
+    // ======================= package-private methods =======================
+
+    /**
+     * Creates the lookup table of a char-set - finds the brightnesses of its chars and stretches them.
+     *
+     * @param charSet - The possible letters that can appear in the Asci-Image.
+     * @param font    - The font of the chars.
+     * @return - The lookup table from a brightness to the closest char of the char-set.
+     */
+    static CharBrightnessLookup createLookup(Character[] charSet, String font) {
+        double[] brightnessArray = charsArrayToBrightnessArray(charSet, font);
+        return new CharBrightnessLookup(charSet, newCharBrightness(brightnessArray));
+    }
+
+    /**
+     * Returns the lookup table of a char-set - the one of the last render if the char-set did not change.
+     *
+     * @param charSet - The possible letters that can appear in the Asci-Image.
+     * @return - The lookup table from a brightness to the closest char of the char-set.
+     */
+    CharBrightnessLookup lookupOf(Character[] charSet) {
+        String charSetKey = charSetKey(charSet);
+        if (!charSetKey.equals(lastCharSet)) {
+            long start = System.nanoTime();
+            lastLookup = createLookup(charSet, font);
+            lastCharSet = charSetKey;
+            stats.addCharsNanos(System.nanoTime() - start);
+        }
+        return lastLookup;
+    }
+
+    /**
+     * @return - The image of the matcher.
+     */
+    Image getImage() {
+        return image;
+    }
+
+    /**
+     * @return - The summed-area table of the image, built on the first call.
+     */
+    SummedAreaTable summedAreaTable() {
+        if (brightnessTable == null)
+            brightnessTable = new SummedAreaTable(image);
+        return brightnessTable;
+    }
+
+    /**
+     * Finds the brightnesses of the sub-images of the image, without choosing their chars.
+     *
+     * @param numCharsInRow - The number of the chars we want in each row in the Asci-Image.
+     * @return - The brightness of the sub-image in row i and column j is in cell i * numCols + j (numCols is
+     * the width of the image divided by the size of a sub-image).
+     */
+    double[] subImageBrightnesses(int numCharsInRow) {
+        int pixels = image.getWidth() / numCharsInRow;
+        return brightnessGrid(pixels, image.getHeight() / pixels, image.getWidth() / pixels);
     }
 
     // =========================== private methods ===========================
 
     /**
      * The function needs to find a compatible Asci-Image.
+     * In the parallel mode every row of the Asci-Image is filled by its own task on the common
+     * ForkJoinPool, and each task writes only to its own row, so the result is identical to the serial one.
      *
-     * @param charArray         - The possible letters that can appear in the Asci-Image.
-     * @param newCharBrightness - An array of char-brightnesses after linear-stretching.
-     * @param pixels            - Number of pixels for the image.
+     * @param lookup - The lookup table from a brightness to the closest char of the char-set.
+     * @param pixels - Number of pixels for the image.
      * @return - A compatible Asci-Image.
      */
-    private char[][] convertImageToAscii(Character[] charArray, double[] newCharBrightness, int pixels) {
-        char[][] asciiArt = new char[image.getHeight() / pixels][image.getWidth() / pixels];
-        int i = 0, j = 0;
-
-        for (Image subImage : image.squareSubImagesOfSize(pixels)) {
-            double curBrightness = calculateImageBrightness(subImage);
-            int indexOfChar = findingIndexOfIdealChar(curBrightness, newCharBrightness);
-            asciiArt[i][j] = charArray[indexOfChar];
-            j++;
-            if (j == asciiArt[0].length) {
-                j = 0;
-                i++;
-            }
-            if (i == asciiArt.length)
-                break;
-        }
+    private char[][] convertImageToAscii(CharBrightnessLookup lookup, int pixels) {
+        int numCols = image.getWidth() / pixels;
+        char[][] asciiArt = new char[image.getHeight() / pixels][numCols];
+        double[] grid = brightnessGrid(pixels, asciiArt.length, numCols);
+        rows(asciiArt.length).forEach(i -> {
+            for (int j = 0; j < numCols; j++)
+                asciiArt[i][j] = lookup.charOf(grid[i * numCols + j]);
+        });
         return asciiArt;
     }
 
     /**
-     * An auxiliary function for convertImageToAscii.
-     * Finds the char with the closest brightness to the input-brightness.
+     * Finds the brightnesses of all the sub-images of a given size, and adds the time to the metrics of
+     * the current render.
      *
-     * @param brightness        - primitive object - double type.
-     * @param newCharBrightness - All the possible brightnesses.
-     * @return - The index of the closest brightness to the input-brightness.
-     */
-    private int findingIndexOfIdealChar(double brightness, double[] newCharBrightness) {
-        int index = 0;
-        double differ = 2; // initialize to something bigger than what possible.
-        for (int i = 0; i < newCharBrightness.length; i++) {
-            if (Math.abs(brightness - newCharBrightness[i]) < differ) {
-                differ = Math.abs(brightness - newCharBrightness[i]);
-                index = i;
-            }
-        }
-        return index;
+     * @param pixels  - The size of the sub-images in pixels.
+     * @param numRows - The number of rows of sub-images.
+     * @param numCols - The number of columns of sub-images.
+     * @return - The brightness of the sub-image in row i and column j is in cell i * numCols + j.
+     */
+    private double[] brightnessGrid(int pixels, int numRows, int numCols) {
+        long start = System.nanoTime();
+        double[] grid = findBrightnessGrid(pixels, numRows, numCols);
+        stats.addBrightnessNanos(System.nanoTime() - start);
+        return grid;
     }
 
     /**
-     * Finds the brightness of a specific image.
+     * Finds the brightnesses of all the sub-images of a given size - from the brightness pyramid if the size
+     * is a power of two, from the cache if they were already found, and otherwise from the summed-area table.
      *
-     * @param subImage - An image.
-     * @return - the brightness of the subImage.
-     */
-    private double calculateImageBrightness(Image subImage) {
-        if (cache.containsKey(subImage))
-            return cache.get(subImage);
-        double greyPixel;
-        double sum = 0;
-        int count = 0;
-        for (Color pixel : subImage.pixels()) {
-            greyPixel = pixel.getRed() * MULT_RED_TO_GREY + pixel.getGreen() * MULT_GREEN_TO_GREY
-                    + pixel.getBlue() * MULT_BLUE_TO_GREY;
-            sum += greyPixel;
-            count++;
+     * @param pixels  - The size of the sub-images in pixels.
+     * @param numRows - The number of rows of sub-images.
+     * @param numCols - The number of columns of sub-images.
+     * @return - The brightness of the sub-image in row i and column j is in cell i * numCols + j.
+     */
+    private double[] findBrightnessGrid(int pixels, int numRows, int numCols) {
+        if (Integer.bitCount(pixels) == 1) {
+            if (pyramid == null)
+                pyramid = new BrightnessPyramid(image);
+            double[] level = pyramid.level(pixels);
+            if (level != null) {
+                stats.addPyramidTiles(level.length);
+                return level;
+            }
         }
-        double subImgBrightness = (sum / count) / RGB;
-        cache.put(subImage, subImgBrightness);
-        return subImgBrightness;
+        double[] grid = cache.get(pixels, numRows * numCols);
+        if (grid != null)
+            return grid;
+        SummedAreaTable table = summedAreaTable();
+        double[] newGrid = new double[numRows * numCols];
+        rows(numRows).forEach(i -> {
+            for (int j = 0; j < numCols; j++)
+                newGrid[i * numCols + j] = table.squareBrightness(j * pixels, i * pixels, pixels);
+        });
+        cache.put(pixels, newGrid);
+        return newGrid;
+    }
+
+    /**
+     * @param charSet - A char-set.
+     * @return - A string of the chars in the order of the char-set (the order decides between chars that are
+     * equally bright, so it is part of the key).
+     */
+    private static String charSetKey(Character[] charSet) {
+        StringBuilder key = new StringBuilder(charSet.length);
+        for (Character c : charSet)
+            key.append(c.charValue());
+        return key.toString();
+    }
+
+    /**
+     * @param numRows - The number of rows.
+     * @return - A stream of the row indices, which is parallel in the parallel mode.
+     */
+    private IntStream rows(int numRows) {
+        IntStream rows = IntStream.range(0, numRows);
+        return parallel ? rows.parallel() : rows;
     }
 
     /**
@@ -131,7 +254,7 @@ public class BrightnessImgCharMatcher {
      * @param brightnessArray - Array f brightnesses.
      * @return - The "linear stretching" array.
      */
-    private double[] newCharBrightness(double[] brightnessArray) {
+    private static double[] newCharBrightness(double[] brightnessArray) {
         int len = brightnessArray.length;
         double minBrightness = 1;
         double maxBrightness = 0;
@@ -155,32 +278,14 @@ public class BrightnessImgCharMatcher {
      * Taking an array of chars and return an array of the brightnesses of each char in the input array.
      *
      * @param charArray - The input char-array.
+     * @param font      - The font of the chars.
      * @return - Array of the brightnesses of each char in the input array.
      */
-    private double[] charsArrayToBrightnessArray(Character[] charArray) {
-        boolean[][] cs;
+    private static double[] charsArrayToBrightnessArray(Character[] charArray, String font) {
+        GlyphBrightnessAtlas atlas = GlyphBrightnessAtlas.get(font, IMAGE_PIXELS);
         double[] brightnessArray = new double[charArray.length];
-        for (int i = 0; i < charArray.length; i++) {
-            cs = CharRenderer.getImg(charArray[i], IMAGE_PIXELS, font);
-            brightnessArray[i] = (double) numOfTrueCells(cs) / (IMAGE_PIXELS * IMAGE_PIXELS);
-        }
+        for (int i = 0; i < charArray.length; i++)
+            brightnessArray[i] = atlas.brightness(charArray[i]);
         return brightnessArray;
     }
-
-    /**
-     * Auxiliary function for charsArrayToBrightnessArray.
-     *
-     * @param boolArray - Array to pass of and to count the "true cells"
-     * @return - The number of the "true cells".
-     */
-    private int numOfTrueCells(boolean[][] boolArray) {
-        int count = 0;
-        for (boolean[] booleans : boolArray) {
-            for (int j = 0; j < boolArray.length; j++) {
-                if (booleans[j])
-                    count++;
-            }
-        }
-        return count;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package ascii_art.img_to_char;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * A decoded image file, kept as one array of packed ARGB pixels (see ArgbImage), so the matchers read its
+ * pixels in a primitive loop instead of creating a Color object for every pixel.
+ * Like Image.fromFile, the image is padded with white to the next powers of two of its width and height, and
+ * centered in the padding, so the sizes of the sub-images and the bounds of the chars in a row are the same.
+ */
+public class BufferedArgbImage implements ArgbImage {
+
+    // ========================== private constant ==========================
+
+    private static final int PADDING_ARGB = 0xffffffff; // white, as the padding of Image.fromFile.
+
+    // =============================== fields ===============================
+
+    private final int width;
+    private final int height;
+    private final int[] argb;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Constructor - copies the pixels of a decoded image to the packed array once, inside the white padding.
+     *
+     * @param image - A decoded image.
+     */
+    public BufferedArgbImage(BufferedImage image) {
+        int origWidth = image.getWidth();
+        int origHeight = image.getHeight();
+        this.width = paddedSize(origWidth);
+        this.height = paddedSize(origHeight);
+        this.argb = new int[width * height];
+        Arrays.fill(argb, PADDING_ARGB);
+        int offset = ((height - origHeight) / 2) * width + (width - origWidth) / 2;
+        image.getRGB(0, 0, origWidth, origHeight, argb, offset, width);
+    }
+
+    /**
+     * @return - The pixels of the image, row after row, packed as ARGB.
+     */
+    @Override
+    public int[] getArgb() {
+        return argb;
+    }
+
+    /**
+     * @return - The width of the image in pixels.
+     */
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return - The height of the image in pixels.
+     */
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    // ======================= package-private methods =======================
+
+    /**
+     * @param size - A positive size of an image.
+     * @return - The size of the image after the padding - the smallest power of two that is not smaller.
+     */
+    static int paddedSize(int size) {
+        int power = Integer.highestOneBit(size);
+        return power == size ? size : power * 2;
+    }
+}
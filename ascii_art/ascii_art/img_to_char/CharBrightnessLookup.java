@@ -0,0 +1,121 @@
+package ascii_art.img_to_char;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * A lookup table from a brightness to the char with the closest brightness in a char-set.
+ * The brightness is quantized to 256 grey levels, and the char of every level is found once per char-set
+ * by sorting the brightnesses of the chars, so finding the char of a sub-image is a single array read.
+ */
+public class CharBrightnessLookup {
+
+    // ========================== private constant ==========================
+
+    private static final int LEVELS = 256;
+    private static final double ROUND = 0.5;
+
+    // =============================== fields ===============================
+
+    private final char[] table = new char[LEVELS];
+    private final double[] chosenBrightness = new double[LEVELS]; // the brightness of the char of a level.
+
+    // =========================== public methods ===========================
+
+    /**
+     * Constructor.
+     * Like the linear search it replaces, when two chars are equally close the one that appears first in
+     * the char-set is chosen.
+     *
+     * @param charSet           - The possible letters that can appear in the Asci-Image.
+     * @param newCharBrightness - The brightnesses of the chars after linear-stretching.
+     */
+    public CharBrightnessLookup(Character[] charSet, double[] newCharBrightness) {
+        int len = newCharBrightness.length;
+        if (IntStream.range(0, len).anyMatch(i -> Double.isNaN(newCharBrightness[i]))) {
+            // all the chars are equally bright, so the stretching is undefined - the first char is chosen.
+            Arrays.fill(table, charSet[0]);
+            for (int level = 0; level < LEVELS; level++)
+                chosenBrightness[level] = (double) level / (LEVELS - 1); // so no error is diffused.
+            return;
+        }
+
+        int[] order = IntStream.range(0, len).boxed()
+                .sorted(Comparator.<Integer>comparingDouble(i -> newCharBrightness[i])
+                        .thenComparingInt(i -> i))
+                .mapToInt(Integer::intValue).toArray();
+        int[] firstOfRun = new int[len]; // the smallest index with the same brightness.
+        for (int k = 0; k < len; k++) {
+            boolean sameAsPrev = k > 0 && newCharBrightness[order[k]] == newCharBrightness[order[k - 1]];
+            firstOfRun[k] = sameAsPrev ? firstOfRun[k - 1] : order[k];
+        }
+
+        int below = -1; // the last sorted position with brightness not bigger than the current level.
+        for (int level = 0; level < LEVELS; level++) {
+            double brightness = (double) level / (LEVELS - 1);
+            while (below + 1 < len && newCharBrightness[order[below + 1]] <= brightness)
+                below++;
+            int closest = closestIndex(brightness, below, order, firstOfRun, newCharBrightness);
+            table[level] = charSet[closest];
+            chosenBrightness[level] = newCharBrightness[closest];
+        }
+    }
+
+    /**
+     * Finds the char with the closest brightness to the input-brightness.
+     *
+     * @param brightness - A brightness in the range [0,1].
+     * @return - The char with the closest brightness.
+     */
+    public char charOf(double brightness) {
+        return table[levelOf(brightness)];
+    }
+
+    /**
+     * Finds the brightness of the char that charOf chooses for the input-brightness, so the difference
+     * between them (the quantization error) can be diffused to other sub-images.
+     *
+     * @param brightness - A brightness in the range [0,1].
+     * @return - The brightness of the chosen char after linear-stretching.
+     */
+    public double charBrightnessOf(double brightness) {
+        return chosenBrightness[levelOf(brightness)];
+    }
+
+    /**
+     * Quantizes a brightness to the grey level the table is indexed by, so two brightnesses with the same
+     * level always get the same char.
+     *
+     * @param brightness - A brightness in the range [0,1].
+     * @return - The grey level of the brightness, in [0,255].
+     */
+    public static int levelOf(double brightness) {
+        return (int) (brightness * (LEVELS - 1) + ROUND);
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Chooses between the chars right below and right above a brightness.
+     *
+     * @param brightness        - The brightness of the current level.
+     * @param below             - The last sorted position with brightness not bigger than the level.
+     * @param order             - The indices of the chars sorted by brightness.
+     * @param firstOfRun        - For every sorted position, the smallest index with the same brightness.
+     * @param newCharBrightness - The brightnesses of the chars after linear-stretching.
+     * @return - The index of the closest char.
+     */
+    private static int closestIndex(double brightness, int below, int[] order, int[] firstOfRun,
+                                    double[] newCharBrightness) {
+        if (below < 0)
+            return firstOfRun[0];
+        if (below == order.length - 1)
+            return firstOfRun[below];
+        double belowDiffer = Math.abs(brightness - newCharBrightness[order[below]]);
+        double aboveDiffer = Math.abs(brightness - newCharBrightness[order[below + 1]]);
+        if (belowDiffer != aboveDiffer)
+            return belowDiffer < aboveDiffer ? firstOfRun[below] : firstOfRun[below + 1];
+        return Math.min(firstOfRun[below], firstOfRun[below + 1]);
+    }
+}
@@ -24,7 +24,6 @@ public class CharRenderer {
      * whose dimension in pixels is specified.
      */
     public static boolean[][] getImg(char c, int pixels, String fontName) {
-        int key = (pixels << 8) | c;
         return render(c, pixels, fontName);
     }
 
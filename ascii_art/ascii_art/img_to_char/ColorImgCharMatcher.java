@@ -0,0 +1,132 @@
+package ascii_art.img_to_char;
+
+import image.Image;
+
+/**
+ * Converts an image to a colored Asci-Image - a char and an average color for every sub-image.
+ * The brightness and the sums of the red, green and blue channels of the sub-images are found together in a
+ * single pass over the pixels, row of sub-images after row, so only one row of sums is held besides the
+ * results. The chars are chosen by brightness, like in BrightnessImgCharMatcher. The brightnesses and colors
+ * of the last size of sub-images are kept, so a render after changing only the char-set reads no pixels.
+ * The colors alone (see colorsOf) can also color the chars of another matcher, in the same rows and columns.
+ */
+public class ColorImgCharMatcher implements ImgCharMatcher {
+
+    // ========================== private constant ==========================
+
+    private static final int RGB = 255;
+    private static final int RED_SHIFT = 16;
+    private static final int GREEN_SHIFT = 8;
+    private static final int CHANNEL_MASK = 0xff;
+
+    // =============================== fields ===============================
+
+    private final BrightnessImgCharMatcher brightnessMatcher;
+    private int lastPixels = 0;
+    private double[] lastBrightnesses = null;
+    private int[][] lastColors = null; // the colors of the sub-images of the last size.
+
+    // =========================== public methods ===========================
+
+    /**
+     * Constructor.
+     *
+     * @param brightnessMatcher - The matcher whose image and lookup tables are used.
+     */
+    public ColorImgCharMatcher(BrightnessImgCharMatcher brightnessMatcher) {
+        this.brightnessMatcher = brightnessMatcher;
+    }
+
+    /**
+     * Divides the image to sub-images and finds a compatible Asci-Image, keeping the average color of every
+     * sub-image (see getColors).
+     *
+     * @param numCharsInRow - The number of the chars we want in each row in the Asci-Image.
+     * @param charSet       - The possible letters that can appear in the Asci-Image.
+     * @return - A compatible Asci-Image.
+     */
+    @Override
+    public char[][] chooseChars(int numCharsInRow, Character[] charSet) {
+        CharBrightnessLookup lookup = brightnessMatcher.lookupOf(charSet);
+        colorsOf(numCharsInRow);
+
+        char[][] asciiArt = new char[lastColors.length][];
+        for (int i = 0; i < asciiArt.length; i++) {
+            int numCols = lastColors[i].length;
+            asciiArt[i] = new char[numCols];
+            for (int j = 0; j < numCols; j++)
+                asciiArt[i][j] = lookup.charOf(lastBrightnesses[i * numCols + j]);
+        }
+        return asciiArt;
+    }
+
+    /**
+     * @return - The average color of every sub-image of the last render, packed as RGB, in the same rows and
+     * columns as the chars. The array is shared with the next renders of the same size and must not be
+     * changed.
+     */
+    public int[][] getColors() {
+        return lastColors;
+    }
+
+    /**
+     * Finds the average color of every sub-image, without choosing chars - e.g. to color the chars that
+     * another matcher chose for the same number of chars in a row.
+     *
+     * @param numCharsInRow - The number of the chars in each row in the Asci-Image.
+     * @return - The colors, as in getColors.
+     */
+    public int[][] colorsOf(int numCharsInRow) {
+        Image image = brightnessMatcher.getImage();
+        int pixels = image.getWidth() / numCharsInRow;
+        if (pixels != lastPixels)
+            measure(image, pixels);
+        return lastColors;
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Finds the brightnesses and the average colors of all the sub-images of a given size in a single pass.
+     *
+     * @param image  - The image.
+     * @param pixels - The size of the sub-images in pixels.
+     */
+    private void measure(Image image, int pixels) {
+        int numCols = image.getWidth() / pixels;
+        int numRows = image.getHeight() / pixels;
+        int width = numCols * pixels;
+        double[] brightnesses = new double[numRows * numCols];
+        int[][] colors = new int[numRows][numCols];
+
+        int[] argb = new int[width];
+        double[] greySums = new double[numCols];
+        long[] redSums = new long[numCols];
+        long[] greenSums = new long[numCols];
+        long[] blueSums = new long[numCols];
+        long numPixels = (long) pixels * pixels;
+        for (int i = 0; i < numRows; i++) {
+            for (int y = i * pixels; y < (i + 1) * pixels; y++) {
+                Luminance.argbRow(image, y, width, argb);
+                for (int x = 0; x < width; x++) {
+                    int pixel = argb[x];
+                    int j = x / pixels;
+                    greySums[j] += Luminance.greyOf(pixel);
+                    redSums[j] += (pixel >> RED_SHIFT) & CHANNEL_MASK;
+                    greenSums[j] += (pixel >> GREEN_SHIFT) & CHANNEL_MASK;
+                    blueSums[j] += pixel & CHANNEL_MASK;
+                }
+            }
+            for (int j = 0; j < numCols; j++) {
+                brightnesses[i * numCols + j] = (greySums[j] / numPixels) / RGB;
+                colors[i][j] = (int) ((redSums[j] / numPixels) << RED_SHIFT
+                        | (greenSums[j] / numPixels) << GREEN_SHIFT | blueSums[j] / numPixels);
+                greySums[j] = 0;
+                redSums[j] = greenSums[j] = blueSums[j] = 0;
+            }
+        }
+        lastPixels = pixels;
+        lastBrightnesses = brightnesses;
+        lastColors = colors;
+    }
+}
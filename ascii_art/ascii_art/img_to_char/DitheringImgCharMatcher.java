@@ -0,0 +1,76 @@
+package ascii_art.img_to_char;
+
+import java.util.Arrays;
+
+/**
+ * Converts an image to an Asci-Image with Floyd-Steinberg error diffusion.
+ * The char of every sub-image is the closest one to its brightness plus the error diffused to it, and the
+ * difference between that and the brightness of the chosen char is diffused to the sub-images to the right
+ * and below (7/16 to the right, 3/16 below-left, 5/16 below and 1/16 below-right). With few chars this
+ * keeps the mean brightness of every area of the image, instead of rounding whole areas to the same char.
+ * The Asci-Image is filled in a single pass over its rows, and the error is kept in only two rows - the one
+ * of the current row and the one of the next row.
+ */
+public class DitheringImgCharMatcher implements ImgCharMatcher {
+
+    // ========================== private constant ==========================
+
+    private static final double RIGHT_WEIGHT = 7.0 / 16;
+    private static final double BELOW_LEFT_WEIGHT = 3.0 / 16;
+    private static final double BELOW_WEIGHT = 5.0 / 16;
+    private static final double BELOW_RIGHT_WEIGHT = 1.0 / 16;
+    private static final int PADDING = 1; // an extra cell on each side of an error row, for the edges.
+
+    // =============================== fields ===============================
+
+    private final BrightnessImgCharMatcher brightnessMatcher;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Constructor.
+     *
+     * @param brightnessMatcher - The matcher whose brightnesses of sub-images and lookup tables are used, so
+     *                          switching between the two matchers does not find them again.
+     */
+    public DitheringImgCharMatcher(BrightnessImgCharMatcher brightnessMatcher) {
+        this.brightnessMatcher = brightnessMatcher;
+    }
+
+    /**
+     * Divides the image to sub-images and finds a compatible Asci-Image, diffusing the error of every
+     * sub-image to the sub-images to the right and below it.
+     *
+     * @param numCharsInRow - The number of the chars we want in each row in the Asci-Image.
+     * @param charSet       - The possible letters that can appear in the Asci-Image.
+     * @return - A compatible Asci-Image.
+     */
+    @Override
+    public char[][] chooseChars(int numCharsInRow, Character[] charSet) {
+        CharBrightnessLookup lookup = brightnessMatcher.lookupOf(charSet);
+        double[] grid = brightnessMatcher.subImageBrightnesses(numCharsInRow);
+        int pixels = brightnessMatcher.getImage().getWidth() / numCharsInRow;
+        int numCols = brightnessMatcher.getImage().getWidth() / pixels;
+        char[][] asciiArt = new char[brightnessMatcher.getImage().getHeight() / pixels][numCols];
+
+        double[] error = new double[numCols + 2 * PADDING];
+        double[] nextError = new double[numCols + 2 * PADDING];
+        for (int i = 0; i < asciiArt.length; i++) {
+            for (int j = 0; j < numCols; j++) {
+                int cell = j + PADDING;
+                double wanted = Math.max(0, Math.min(1, grid[i * numCols + j] + error[cell]));
+                asciiArt[i][j] = lookup.charOf(wanted);
+                double quantError = wanted - lookup.charBrightnessOf(wanted);
+                error[cell + 1] += quantError * RIGHT_WEIGHT;
+                nextError[cell - 1] += quantError * BELOW_LEFT_WEIGHT;
+                nextError[cell] += quantError * BELOW_WEIGHT;
+                nextError[cell + 1] += quantError * BELOW_RIGHT_WEIGHT;
+            }
+            double[] done = error;
+            error = nextError;
+            nextError = done;
+            Arrays.fill(nextError, 0);
+        }
+        return asciiArt;
+    }
+}
@@ -0,0 +1,331 @@
+package ascii_art.img_to_char;
+
+import ascii_output.AsciiOutput;
+import image.Image;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Converts a sequence of frames (e.g. the frames of a screen recording) to a sequence of Asci-Images.
+ * The conversion is a pipeline of stages that run concurrently - decoding the frames, finding the
+ * brightnesses of their sub-images, matching chars to the brightnesses and writing the Asci-Images - with a
+ * small bounded queue between every two stages. The brightness stage compares the pixels of every sub-image
+ * with the previous frame and finds the brightness only of the sub-images that changed, in a single pass
+ * over the rows with buffers that are kept while the size of the frames stays the same. A sub-image whose
+ * grey level (see CharBrightnessLookup.levelOf) did not change keeps its char without matching it again, and
+ * a row in which nothing changed is shared with the previous Asci-Image. The Asci-Images are written at a
+ * target rate of frames per second.
+ */
+public class FrameSequenceConverter {
+
+    // ========================== private constant ==========================
+
+    private static final int QUEUE_CAPACITY = 4;
+    private static final int NUM_OF_STAGES = 3; // the stages that run on their own threads.
+    private static final double NANOS_IN_SECOND = 1e9;
+    private static final int RGB = 255;
+    private static final String NULL_IMG_MSG = "Failed to open frame ";
+    private static final Frame END = new Frame(null); // the frame after the last one.
+
+    // =============================== fields ===============================
+
+    private final String font;
+    private long matchedTiles = 0;
+    private long reusedTiles = 0;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Constructor.
+     *
+     * @param font - The font of the Asci-Images.
+     */
+    public FrameSequenceConverter(String font) {
+        this.font = font;
+    }
+
+    /**
+     * Converts the frames, in their order, and writes every Asci-Image to the output.
+     * A frame that could not be opened is skipped.
+     *
+     * @param frames        - The image files of the frames.
+     * @param numCharsInRow - The number of the chars we want in each row in the Asci-Images.
+     * @param charSet       - The possible letters that can appear in the Asci-Images.
+     * @param fps           - The number of Asci-Images to write in a second, or 0 to write them as fast as
+     *                      they are ready.
+     * @param output        - The output every Asci-Image is written to.
+     * @throws InterruptedException - If the thread was interrupted while waiting for the stages.
+     * @throws ExecutionException   - If one of the stages failed.
+     */
+    public void convert(List<File> frames, int numCharsInRow, Character[] charSet, double fps,
+                        AsciiOutput output) throws InterruptedException, ExecutionException {
+        CharBrightnessLookup lookup = BrightnessImgCharMatcher.createLookup(charSet, font);
+        BlockingQueue<Frame> decoded = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<Frame> measured = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<Frame> matched = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        ExecutorService stages = Executors.newFixedThreadPool(NUM_OF_STAGES);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            results.add(stages.submit(() -> decode(frames, decoded)));
+            results.add(stages.submit(() -> measure(numCharsInRow, decoded, measured)));
+            results.add(stages.submit(() -> match(lookup, measured, matched)));
+            write(fps, matched, output);
+            // from the last stage, so a stage that failed is reported before the stages it blocked.
+            for (int i = results.size() - 1; i >= 0; i--)
+                results.get(i).get();
+        } finally {
+            stages.shutdownNow();
+            stages.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return - The number of sub-images whose char was matched again, over all the conversions.
+     */
+    public synchronized long getMatchedTiles() {
+        return matchedTiles;
+    }
+
+    /**
+     * @return - The number of sub-images that kept the char of the previous frame, over all the conversions.
+     */
+    public synchronized long getReusedTiles() {
+        return reusedTiles;
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * The first stage - decodes the frames.
+     *
+     * @param frames - The image files of the frames.
+     * @param out    - The queue of the decoded frames.
+     * @return - null (a Callable, so the stage may throw).
+     * @throws InterruptedException - If the stage was interrupted.
+     */
+    private static Void decode(List<File> frames, BlockingQueue<Frame> out) throws InterruptedException {
+        try {
+            for (File file : frames) {
+                Image image = ImageFiles.open(file.getPath());
+                if (image == null) {
+                    Logger.getGlobal().severe(NULL_IMG_MSG + file);
+                    continue;
+                }
+                out.put(new Frame(image));
+            }
+        } finally {
+            out.put(END);
+        }
+        return null;
+    }
+
+    /**
+     * The second stage - finds the brightnesses of the sub-images of every frame. The brightness of a
+     * sub-image whose pixels are the same as in the previous frame is copied from the previous frame.
+     *
+     * @param numCharsInRow - The number of the chars we want in each row in the Asci-Images.
+     * @param in            - The queue of the decoded frames.
+     * @param out           - The queue of the frames with their brightnesses.
+     * @return - null (a Callable, so the stage may throw).
+     * @throws InterruptedException - If the stage was interrupted.
+     */
+    private static Void measure(int numCharsInRow, BlockingQueue<Frame> in, BlockingQueue<Frame> out)
+            throws InterruptedException {
+        try {
+            Image prevImage = null;
+            double[] prevBrightnesses = null;
+            int[] argb = null;
+            int[] prevArgb = null;
+            double[] sums = null;
+            boolean[] changed = null;
+            for (Frame frame = in.take(); frame != END; frame = in.take()) {
+                Image image = frame.image;
+                int pixels = image.getWidth() / Math.min(numCharsInRow, image.getWidth());
+                frame.numCols = image.getWidth() / pixels;
+                frame.numRows = image.getHeight() / pixels;
+                int width = frame.numCols * pixels;
+                if (prevImage == null || prevImage.getWidth() != image.getWidth()
+                        || prevImage.getHeight() != image.getHeight()) { // a new size - new buffers.
+                    prevImage = null;
+                    argb = new int[width];
+                    prevArgb = new int[width];
+                    sums = new double[frame.numCols];
+                    changed = new boolean[frame.numCols];
+                }
+                frame.brightnesses = new double[frame.numRows * frame.numCols];
+                for (int i = 0; i < frame.numRows; i++) {
+                    Arrays.fill(changed, prevImage == null);
+                    if (prevImage != null)
+                        findChanged(image, prevImage, i * pixels, pixels, argb, prevArgb, changed);
+                    sumChanged(image, i * pixels, pixels, changed, argb, sums);
+                    for (int j = 0; j < frame.numCols; j++) {
+                        int cell = i * frame.numCols + j;
+                        frame.brightnesses[cell] =
+                                changed[j] ? (sums[j] / (pixels * pixels)) / RGB : prevBrightnesses[cell];
+                    }
+                }
+                prevImage = image;
+                prevBrightnesses = frame.brightnesses;
+                frame.image = null; // the pixels are not needed anymore by the next stages.
+                out.put(frame);
+            }
+        } finally {
+            out.put(END);
+        }
+        return null;
+    }
+
+    /**
+     * Finds the sub-images of a row of sub-images whose pixels are not the same as in the previous frame.
+     *
+     * @param image     - The frame.
+     * @param prevImage - The previous frame, of the same size.
+     * @param firstY    - The y-value of the first row of pixels of the sub-images.
+     * @param pixels    - The size of a sub-image in pixels.
+     * @param argb      - A buffer of a row of the frame.
+     * @param prevArgb  - A buffer of a row of the previous frame.
+     * @param changed   - Set for every sub-image that changed.
+     */
+    private static void findChanged(Image image, Image prevImage, int firstY, int pixels, int[] argb,
+                                    int[] prevArgb, boolean[] changed) {
+        for (int y = firstY; y < firstY + pixels; y++) {
+            Luminance.argbRow(image, y, argb.length, argb);
+            Luminance.argbRow(prevImage, y, prevArgb.length, prevArgb);
+            for (int j = 0; j < changed.length; j++) {
+                int from = j * pixels;
+                changed[j] |= !Arrays.equals(argb, from, from + pixels, prevArgb, from, from + pixels);
+            }
+        }
+    }
+
+    /**
+     * Sums the grey pixels of the sub-images of a row of sub-images that changed.
+     *
+     * @param image   - The frame.
+     * @param firstY  - The y-value of the first row of pixels of the sub-images.
+     * @param pixels  - The size of a sub-image in pixels.
+     * @param changed - The sub-images that changed.
+     * @param argb    - A buffer of a row of the frame.
+     * @param sums    - The array to write the sum of every sub-image that changed to.
+     */
+    private static void sumChanged(Image image, int firstY, int pixels, boolean[] changed, int[] argb,
+                                   double[] sums) {
+        Arrays.fill(sums, 0);
+        for (int y = firstY; y < firstY + pixels; y++) {
+            Luminance.argbRow(image, y, argb.length, argb);
+            for (int j = 0; j < changed.length; j++) {
+                if (!changed[j])
+                    continue;
+                for (int x = j * pixels; x < (j + 1) * pixels; x++)
+                    sums[j] += Luminance.greyOf(argb[x]);
+            }
+        }
+    }
+
+    /**
+     * The third stage - matches chars to the brightnesses whose grey level changed from the previous frame.
+     *
+     * @param lookup - The lookup table from a brightness to the closest char of the char-set.
+     * @param in     - The queue of the frames with their brightnesses.
+     * @param out    - The queue of the frames with their Asci-Images.
+     * @return - null (a Callable, so the stage may throw).
+     * @throws InterruptedException - If the stage was interrupted.
+     */
+    private Void match(CharBrightnessLookup lookup, BlockingQueue<Frame> in, BlockingQueue<Frame> out)
+            throws InterruptedException {
+        try {
+            Frame prev = null;
+            for (Frame frame = in.take(); frame != END; frame = in.take()) {
+                boolean sameSize = prev != null && prev.numRows == frame.numRows
+                        && prev.numCols == frame.numCols;
+                frame.chars = new char[frame.numRows][];
+                int reused = 0;
+                for (int i = 0; i < frame.numRows; i++) {
+                    int offset = i * frame.numCols;
+                    char[] prevRow = sameSize ? prev.chars[i] : null;
+                    char[] row = sameSize ? prevRow : new char[frame.numCols];
+                    for (int j = 0; j < frame.numCols; j++) {
+                        double brightness = frame.brightnesses[offset + j];
+                        if (sameSize && CharBrightnessLookup.levelOf(brightness)
+                                == CharBrightnessLookup.levelOf(prev.brightnesses[offset + j])) {
+                            reused++;
+                            continue;
+                        }
+                        if (row == prevRow)
+                            row = prevRow.clone(); // the row of the previous frame may still be written.
+                        row[j] = lookup.charOf(brightness);
+                    }
+                    frame.chars[i] = row;
+                }
+                synchronized (this) {
+                    reusedTiles += reused;
+                    matchedTiles += (long) frame.numRows * frame.numCols - reused;
+                }
+                if (prev != null)
+                    prev.brightnesses = null;
+                prev = frame;
+                out.put(frame);
+            }
+        } finally {
+            out.put(END);
+        }
+        return null;
+    }
+
+    /**
+     * The last stage - writes the Asci-Images at the target rate. Runs on the thread of the caller.
+     *
+     * @param fps    - The number of Asci-Images to write in a second, or 0 for as fast as they are ready.
+     * @param in     - The queue of the frames with their Asci-Images.
+     * @param output - The output every Asci-Image is written to.
+     * @throws InterruptedException - If the thread was interrupted.
+     */
+    private static void write(double fps, BlockingQueue<Frame> in, AsciiOutput output)
+            throws InterruptedException {
+        long frameNanos = fps > 0 ? (long) (NANOS_IN_SECOND / fps) : 0;
+        long start = System.nanoTime();
+        long written = 0;
+        for (Frame frame = in.take(); frame != END; frame = in.take()) {
+            long wait = start + written * frameNanos - System.nanoTime();
+            if (wait > 0)
+                TimeUnit.NANOSECONDS.sleep(wait);
+            output.output(frame.chars);
+            written++;
+        }
+    }
+
+    // ============================ nested class ============================
+
+    /**
+     * A frame on its way through the stages. Every stage fills its own fields, and a frame is passed to the
+     * next stage only through a queue, so no field is written and read concurrently.
+     */
+    private static final class Frame {
+        private Image image;
+        private int numRows;
+        private int numCols;
+        private double[] brightnesses;
+        private char[][] chars;
+
+        /**
+         * Constructor.
+         *
+         * @param image - The decoded frame.
+         */
+        private Frame(Image image) {
+            this.image = image;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package ascii_art.img_to_char;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Holds the brightness of every printable char of a font, rendered once to a square of a given size.
+ * The atlases are shared by all the matchers through "get", and can also be persisted to a small binary
+ * file, so a new run of the program does not have to render the chars again.
+ */
+public class GlyphBrightnessAtlas {
+
+    // ========================== private constant ==========================
+
+    private static final char FIRST_PRINTABLE = ' ';
+    private static final char LAST_PRINTABLE = '~';
+    private static final int NUM_OF_PRINTABLE = LAST_PRINTABLE - FIRST_PRINTABLE + 1;
+    private static final int FILE_MAGIC = 0x47424131; // "GBA1"
+    private static final String FILE_SUFFIX = ".glyphs";
+    private static final String ILLEGAL_FILE_NAME_CHARS = "[^A-Za-z0-9]";
+    private static final String FILE_NAME_SEPARATOR = "_";
+    private static final String KEY_SEPARATOR = ":";
+    private static final String SAVE_FAILED_MSG = "Failed to save glyph atlas to ";
+
+    // =========================== static fields ============================
+
+    private static final Map<String, GlyphBrightnessAtlas> atlases = new HashMap<>();
+    private static Path cacheDirectory = null;
+
+    // =============================== fields ===============================
+
+    private final String font;
+    private final int pixels;
+    private final double[] brightness;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Returns the atlas of the given font and size. The atlas is rendered only on the first call (or read
+     * from the cache directory, if one was set), and the same atlas is returned by the next calls.
+     *
+     * @param font   - The name of the font.
+     * @param pixels - The size of the square every char is rendered to.
+     * @return - The atlas of the font.
+     */
+    public static synchronized GlyphBrightnessAtlas get(String font, int pixels) {
+        String key = pixels + KEY_SEPARATOR + font;
+        GlyphBrightnessAtlas atlas = atlases.get(key);
+        if (atlas == null) {
+            Path file = cacheDirectory == null ? null : cacheDirectory.resolve(fileName(font, pixels));
+            atlas = file == null ? null : load(file, font, pixels);
+            if (atlas == null) {
+                atlas = new GlyphBrightnessAtlas(font, pixels, renderPrintable(font, pixels));
+                if (file != null)
+                    atlas.save(file);
+            }
+            atlases.put(key, atlas);
+        }
+        return atlas;
+    }
+
+    /**
+     * Sets a directory to persist the atlases in. By default the atlases are only kept in memory.
+     *
+     * @param directory - The directory of the atlas files, or null to stop persisting them.
+     */
+    public static synchronized void setCacheDirectory(Path directory) {
+        cacheDirectory = directory;
+    }
+
+    /**
+     * Finds the brightness of a char - the part of its square that is not covered by the char.
+     * Printable chars are read from the atlas, and any other char is rendered.
+     *
+     * @param c - The char.
+     * @return - The brightness of the char.
+     */
+    public double brightness(char c) {
+        if (c >= FIRST_PRINTABLE && c <= LAST_PRINTABLE)
+            return brightness[c - FIRST_PRINTABLE];
+        return renderBrightness(c, font, pixels);
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Constructor.
+     *
+     * @param font       - The name of the font.
+     * @param pixels     - The size of the square every char is rendered to.
+     * @param brightness - The brightness of every printable char.
+     */
+    private GlyphBrightnessAtlas(String font, int pixels, double[] brightness) {
+        this.font = font;
+        this.pixels = pixels;
+        this.brightness = brightness;
+    }
+
+    /**
+     * Renders all the printable chars of the font.
+     *
+     * @param font   - The name of the font.
+     * @param pixels - The size of the square every char is rendered to.
+     * @return - The brightness of every printable char.
+     */
+    private static double[] renderPrintable(String font, int pixels) {
+        double[] brightness = new double[NUM_OF_PRINTABLE];
+        for (int i = 0; i < NUM_OF_PRINTABLE; i++)
+            brightness[i] = renderBrightness((char) (FIRST_PRINTABLE + i), font, pixels);
+        return brightness;
+    }
+
+    /**
+     * Renders a single char and finds its brightness.
+     *
+     * @param c      - The char.
+     * @param font   - The name of the font.
+     * @param pixels - The size of the square the char is rendered to.
+     * @return - The number of the "true cells" divided by the number of cells.
+     */
+    private static double renderBrightness(char c, String font, int pixels) {
+        return (double) numOfTrueCells(CharRenderer.getImg(c, pixels, font)) / (pixels * pixels);
+    }
+
+    /**
+     * Counts the "true cells" of a rendered char.
+     *
+     * @param boolArray - Array to pass of and to count the "true cells"
+     * @return - The number of the "true cells".
+     */
+    private static int numOfTrueCells(boolean[][] boolArray) {
+        int count = 0;
+        for (boolean[] booleans : boolArray) {
+            for (int j = 0; j < boolArray.length; j++) {
+                if (booleans[j])
+                    count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads an atlas from a file.
+     *
+     * @param file   - The file of the atlas.
+     * @param font   - The expected font of the atlas.
+     * @param pixels - The expected size of the atlas.
+     * @return - The atlas, or null if the file is missing or does not match the font and size.
+     */
+    private static GlyphBrightnessAtlas load(Path file, String font, int pixels) {
+        if (!Files.isRegularFile(file))
+            return null;
+        try (DataInputStream in =
+                     new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || !in.readUTF().equals(font) || in.readInt() != pixels
+                    || in.readInt() != NUM_OF_PRINTABLE)
+                return null;
+            double[] brightness = new double[NUM_OF_PRINTABLE];
+            for (int i = 0; i < NUM_OF_PRINTABLE; i++)
+                brightness[i] = in.readDouble();
+            return new GlyphBrightnessAtlas(font, pixels, brightness);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the atlas to a file. A failure only means the next run renders the chars again.
+     *
+     * @param file - The file to write to.
+     */
+    private void save(Path file) {
+        try (DataOutputStream out =
+                     new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeUTF(font);
+            out.writeInt(pixels);
+            out.writeInt(NUM_OF_PRINTABLE);
+            for (double b : brightness)
+                out.writeDouble(b);
+        } catch (IOException e) {
+            Logger.getGlobal().warning(SAVE_FAILED_MSG + file);
+        }
+    }
+
+    /**
+     * @param font   - The name of the font.
+     * @param pixels - The size of the atlas.
+     * @return - The name of the atlas file.
+     */
+    private static String fileName(String font, int pixels) {
+        return font.replaceAll(ILLEGAL_FILE_NAME_CHARS, FILE_NAME_SEPARATOR) + FILE_NAME_SEPARATOR + pixels
+                + FILE_SUFFIX;
+    }
+}
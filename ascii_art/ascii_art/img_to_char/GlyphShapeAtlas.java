@@ -0,0 +1,97 @@
+package ascii_art.img_to_char;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The shapes of the chars of a font, as 8x8 bitsets.
+ * Every char is rendered once (at 16x16 pixels, by the function "getImg" from the class "CharRenderer") and
+ * downsampled to 8x8 cells, and the cells are packed to a single long - bit (row * 8 + col) is set if the
+ * cell is bright (mostly not covered by the char). Comparing two shapes is then one XOR and one bitCount.
+ */
+public class GlyphShapeAtlas {
+
+    // ========================== public constant ===========================
+
+    public static final int CELLS_IN_ROW = 8;
+
+    // ========================== private constant ==========================
+
+    private static final char FIRST_PRINTABLE = ' ';
+    private static final char LAST_PRINTABLE = '~';
+    private static final int NUM_OF_PRINTABLE = LAST_PRINTABLE - FIRST_PRINTABLE + 1;
+    private static final int PIXELS_IN_CELL = 2;
+    private static final int RENDER_PIXELS = CELLS_IN_ROW * PIXELS_IN_CELL;
+    private static final int MIN_BRIGHT_PIXELS = 3; // of the 4 pixels of a cell, for the cell to be bright.
+
+    // =========================== static fields ============================
+
+    private static final Map<String, GlyphShapeAtlas> atlases = new HashMap<>();
+
+    // =============================== fields ===============================
+
+    private final String font;
+    private final long[] shapes;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Returns the atlas of the given font. The atlas is rendered only on the first call, and the same atlas
+     * is returned by the next calls.
+     *
+     * @param font - The name of the font.
+     * @return - The atlas of the font.
+     */
+    public static synchronized GlyphShapeAtlas get(String font) {
+        return atlases.computeIfAbsent(font, GlyphShapeAtlas::new);
+    }
+
+    /**
+     * Finds the shape of a char. Printable chars are read from the atlas, and any other char is rendered.
+     *
+     * @param c - The char.
+     * @return - The 8x8 bitset of the char.
+     */
+    public long shape(char c) {
+        if (c >= FIRST_PRINTABLE && c <= LAST_PRINTABLE)
+            return shapes[c - FIRST_PRINTABLE];
+        return renderShape(c, font);
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Constructor - renders all the printable chars of the font.
+     *
+     * @param font - The name of the font.
+     */
+    private GlyphShapeAtlas(String font) {
+        this.font = font;
+        this.shapes = new long[NUM_OF_PRINTABLE];
+        for (int i = 0; i < NUM_OF_PRINTABLE; i++)
+            shapes[i] = renderShape((char) (FIRST_PRINTABLE + i), font);
+    }
+
+    /**
+     * Renders a single char and packs its downsampled cells.
+     *
+     * @param c    - The char.
+     * @param font - The name of the font.
+     * @return - The 8x8 bitset of the char.
+     */
+    private static long renderShape(char c, String font) {
+        boolean[][] img = CharRenderer.getImg(c, RENDER_PIXELS, font);
+        long shape = 0;
+        for (int row = 0; row < CELLS_IN_ROW; row++) {
+            for (int col = 0; col < CELLS_IN_ROW; col++) {
+                int bright = 0;
+                for (int y = row * PIXELS_IN_CELL; y < (row + 1) * PIXELS_IN_CELL; y++)
+                    for (int x = col * PIXELS_IN_CELL; x < (col + 1) * PIXELS_IN_CELL; x++)
+                        bright += img[y][x] ? 1 : 0;
+                if (bright >= MIN_BRIGHT_PIXELS)
+                    shape |= 1L << (row * CELLS_IN_ROW + col);
+            }
+        }
+        return shape;
+    }
+}
@@ -0,0 +1,68 @@
+package ascii_art.img_to_char;
+
+import image.Image;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.logging.Logger;
+
+/**
+ * Opens the image files of the program - raw image files are mapped (see MappedRawImage), and any other
+ * file is decoded once to an array of packed ARGB pixels (see BufferedArgbImage), padded to powers of two as
+ * Image.fromFile pads it. A file that ImageIO cannot decode is left to Image.fromFile.
+ */
+public final class ImageFiles {
+
+    // ========================== private constant ==========================
+
+    private static final String MAP_FAILED_MSG = "Failed to map raw image file %s: %s";
+    private static final String DECODE_FAILED_MSG = "Failed to decode image file %s: %s";
+
+    // =========================== public methods ===========================
+
+    /**
+     * Opens an image file.
+     *
+     * @param filename - The path of the image file.
+     * @return - The image, or null if the file could not be opened.
+     */
+    public static Image open(String filename) {
+        Path file = Paths.get(filename);
+        if (!MappedRawImage.isRaw(file))
+            return decode(file);
+        try {
+            return MappedRawImage.open(file);
+        } catch (IOException e) {
+            Logger.getGlobal().severe(String.format(MAP_FAILED_MSG, filename, e.getMessage()));
+            return null;
+        }
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Decodes an image file that is not raw.
+     *
+     * @param file - The path of the image file.
+     * @return - The image, or null if the file could not be decoded.
+     */
+    private static Image decode(Path file) {
+        BufferedImage decoded;
+        try {
+            decoded = ImageIO.read(file.toFile());
+        } catch (IOException e) {
+            Logger.getGlobal().severe(String.format(DECODE_FAILED_MSG, file, e.getMessage()));
+            return null;
+        }
+        return decoded != null ? new BufferedArgbImage(decoded) : Image.fromFile(file.toString());
+    }
+
+    /**
+     * Private constructor - the class has only static methods.
+     */
+    private ImageFiles() {
+    }
+}
@@ -0,0 +1,369 @@
+package ascii_art.img_to_char;
+
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.event.IIOReadUpdateListener;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataFormatImpl;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Reads the rows of an image from the top to the bottom, decoding the image only once and never holding more
+ * than a strip of it. The image is decoded to an image whose pixels are kept in a ring of rows, and every row
+ * is handed to the consumer as soon as the reader reports it (see IIOReadUpdateListener), before the rows
+ * after it overwrite it. Images that are decoded in several passes (like interlaced PNG or progressive JPEG),
+ * and images whose reader needs the pixels in the buffer of its own type, are read in strips of rows
+ * instead, one read per strip.
+ */
+final class ImageRows {
+
+    // ========================== private constant ==========================
+
+    private static final int STRIP_PIXELS_BUDGET = 1 << 22; // the maximal number of pixels in a strip.
+    private static final String NUM_OF_SCANS_NODE = "NumProgressiveScans";
+    private static final String VALUE_ATTRIBUTE = "value";
+    private static final String NOT_IN_ORDER_MSG = "The rows of the image were not decoded in order";
+
+    // ======================= package-private methods ======================
+
+    /**
+     * Reads the first rows of an image and hands them to a consumer, in order.
+     *
+     * @param reader   - The reader of the image, with its input already set (and not only forward seeking, in
+     *                 case the image is read in strips).
+     * @param numRows  - The number of the rows to read, from the top of the image.
+     * @param consumer - The consumer of the rows.
+     * @throws IOException - If the image could not be read or the consumer failed.
+     */
+    static void read(ImageReader reader, int numRows, RowConsumer consumer) throws IOException {
+        int width = reader.getWidth(0);
+        int ringRows = Math.max(1, Math.min(numRows, STRIP_PIXELS_BUDGET / width));
+        BufferedImage ring = numOfScans(reader) == 1 ?
+                ringImage(reader, width, reader.getHeight(0), ringRows) : null;
+        if (ring == null) {
+            readStrips(reader, numRows, ringRows, consumer);
+            return;
+        }
+        RowListener listener = new RowListener(reader, width, numRows, ringRows, consumer);
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setDestination(ring);
+        reader.addIIOReadUpdateListener(listener);
+        try {
+            reader.read(0, param);
+        } catch (ClassCastException e) { // the reader writes to the buffer of its own type (like BMP).
+            if (listener.nextRow > 0)
+                throw new IOException(NOT_IN_ORDER_MSG, e);
+        } finally {
+            reader.removeIIOReadUpdateListener(listener);
+        }
+        if (listener.failure != null)
+            throw listener.failure;
+        if (listener.nextRow == numRows)
+            return;
+        if (listener.nextRow > 0)
+            throw new IOException(NOT_IN_ORDER_MSG);
+        readStrips(reader, numRows, ringRows, consumer); // several passes, or no updates from the reader.
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Reads the first rows of an image in strips, one read for every strip.
+     *
+     * @param reader      - The reader of the image, with its input already set.
+     * @param numRows     - The number of the rows to read, from the top of the image.
+     * @param rowsInStrip - The number of the rows in a strip.
+     * @param consumer    - The consumer of the rows.
+     * @throws IOException - If the image could not be read or the consumer failed.
+     */
+    private static void readStrips(ImageReader reader, int numRows, int rowsInStrip, RowConsumer consumer)
+            throws IOException {
+        int width = reader.getWidth(0);
+        ImageReadParam param = reader.getDefaultReadParam();
+        int[] row = new int[width];
+        for (int firstRow = 0; firstRow < numRows; firstRow += rowsInStrip) {
+            int stripRows = Math.min(rowsInStrip, numRows - firstRow);
+            param.setSourceRegion(new Rectangle(0, firstRow, width, stripRows));
+            BufferedImage strip = reader.read(0, param);
+            for (int y = 0; y < stripRows; y++) {
+                strip.getRGB(0, y, width, 1, row, 0, width);
+                consumer.accept(row, firstRow + y);
+            }
+        }
+    }
+
+    /**
+     * Finds how many times the image is scanned, according to its standard metadata - more than once when it
+     * is decoded in several passes, like interlaced PNG or GIF and progressive JPEG.
+     *
+     * @param reader - The reader of the image.
+     * @return - The number of the scans of the image, or 1 if it is not known.
+     * @throws IOException - If the metadata could not be read.
+     */
+    private static int numOfScans(ImageReader reader) throws IOException {
+        IIOMetadata metadata = reader.getImageMetadata(0);
+        if (metadata == null || !metadata.isStandardMetadataFormatSupported())
+            return 1;
+        NodeList scans = ((Element) metadata.getAsTree(IIOMetadataFormatImpl.standardMetadataFormatName))
+                .getElementsByTagName(NUM_OF_SCANS_NODE);
+        if (scans.getLength() == 0)
+            return 1;
+        try {
+            return Integer.parseInt(((Element) scans.item(0)).getAttribute(VALUE_ATTRIBUTE));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * Creates an image of the type the reader decodes to, whose pixels are kept in a ring of rows.
+     *
+     * @param reader   - The reader of the image.
+     * @param width    - The width of the image.
+     * @param height   - The height of the image.
+     * @param ringRows - The number of the rows in the ring.
+     * @return - The image, or null if the layout of the pixels of the type is not known.
+     * @throws IOException - If the type of the image could not be read.
+     */
+    private static BufferedImage ringImage(ImageReader reader, int width, int height, int ringRows)
+            throws IOException {
+        Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+        if (!types.hasNext())
+            return null;
+        ImageTypeSpecifier type = types.next();
+        SampleModel sampleModel = type.getSampleModel(width, height);
+        int stride;
+        int numBanks = 1;
+        if (sampleModel instanceof ComponentSampleModel) {
+            ComponentSampleModel components = (ComponentSampleModel) sampleModel;
+            stride = components.getScanlineStride();
+            numBanks = Arrays.stream(components.getBankIndices()).max().orElse(0) + 1;
+        } else if (sampleModel instanceof SinglePixelPackedSampleModel)
+            stride = ((SinglePixelPackedSampleModel) sampleModel).getScanlineStride();
+        else if (sampleModel instanceof MultiPixelPackedSampleModel)
+            stride = ((MultiPixelPackedSampleModel) sampleModel).getScanlineStride();
+        else
+            return null;
+        if ((long) stride * height > Integer.MAX_VALUE)
+            return null;
+        ColorModel colorModel = type.getColorModel();
+        DataBuffer buffer = new RingDataBuffer(sampleModel.getDataType(), stride * height, numBanks,
+                stride * ringRows);
+        return new BufferedImage(colorModel, Raster.createWritableRaster(sampleModel, buffer, null),
+                colorModel.isAlphaPremultiplied(), null);
+    }
+
+    /**
+     * Private constructor - the class has only static methods.
+     */
+    private ImageRows() {
+    }
+
+    // ============================ nested class ============================
+
+    /**
+     * Consumes the rows of an image.
+     */
+    interface RowConsumer {
+        /**
+         * Consumes a row of the image.
+         *
+         * @param argb - The pixels of the row, packed as ARGB. Overwritten after the call returns.
+         * @param y    - The index of the row.
+         * @throws IOException - If the row could not be consumed.
+         */
+        void accept(int[] argb, int y) throws IOException;
+    }
+
+    /**
+     * The pixels of an image that keeps only a ring of rows - the element i of a bank is kept in the element
+     * i % ringSize, so a row overwrites the row ringRows before it.
+     */
+    private static final class RingDataBuffer extends DataBuffer {
+        private final int[][] banks;
+        private final int ringSize;
+
+        /**
+         * Constructor.
+         *
+         * @param dataType - The type of the elements, as the sample model of the image.
+         * @param size     - The number of the elements of a bank of the whole image.
+         * @param numBanks - The number of the banks.
+         * @param ringSize - The number of the elements of a bank that are kept.
+         */
+        private RingDataBuffer(int dataType, int size, int numBanks, int ringSize) {
+            super(dataType, size, numBanks);
+            this.banks = new int[numBanks][ringSize];
+            this.ringSize = ringSize;
+        }
+
+        /**
+         * @param bank - The index of the bank.
+         * @param i    - The index of the element in the whole image.
+         * @return - The element.
+         */
+        @Override
+        public int getElem(int bank, int i) {
+            return banks[bank][i % ringSize];
+        }
+
+        /**
+         * @param bank - The index of the bank.
+         * @param i    - The index of the element in the whole image.
+         * @param val  - The element.
+         */
+        @Override
+        public void setElem(int bank, int i, int val) {
+            banks[bank][i % ringSize] = val;
+        }
+    }
+
+    /**
+     * Hands every row the reader decoded to the consumer, and stops the reader if the image is decoded in
+     * several passes or its rows are not reported in order.
+     */
+    private static final class RowListener implements IIOReadUpdateListener {
+        private final ImageReader reader;
+        private final int numRows;
+        private final int ringRows;
+        private final RowConsumer consumer;
+        private final int[] row;
+        private int nextRow = 0; // the next row to hand to the consumer.
+        private boolean stopped = false;
+        private IOException failure;
+
+        /**
+         * Constructor.
+         *
+         * @param reader   - The reader of the image.
+         * @param width    - The width of the image.
+         * @param numRows  - The number of the rows to read.
+         * @param ringRows - The number of the rows the image keeps.
+         * @param consumer - The consumer of the rows.
+         */
+        private RowListener(ImageReader reader, int width, int numRows, int ringRows, RowConsumer consumer) {
+            this.reader = reader;
+            this.numRows = numRows;
+            this.ringRows = ringRows;
+            this.consumer = consumer;
+            this.row = new int[width];
+        }
+
+        /**
+         * Stops the reader if the image is decoded in several passes.
+         *
+         * @param source   - The reader.
+         * @param theImage - The image that is decoded.
+         * @param pass     - The index of the pass.
+         * @param minPass  - The index of the first pass that is decoded.
+         * @param maxPass  - The index of the last pass that is decoded.
+         * @param minX     - The x-value of the first pixel of the pass.
+         * @param minY     - The y-value of the first pixel of the pass.
+         * @param periodX  - The horizontal distance between the pixels of the pass.
+         * @param periodY  - The vertical distance between the pixels of the pass.
+         * @param bands    - The bands of the image that are decoded.
+         */
+        @Override
+        public void passStarted(ImageReader source, BufferedImage theImage, int pass, int minPass,
+                                int maxPass, int minX, int minY, int periodX, int periodY, int[] bands) {
+            if (pass > 0 || periodY != 1)
+                stop(nextRow > 0 ? new IOException(NOT_IN_ORDER_MSG) : null);
+        }
+
+        /**
+         * Hands the rows that were decoded to the consumer.
+         *
+         * @param source   - The reader.
+         * @param theImage - The image that is decoded.
+         * @param minX     - The x-value of the first pixel that was decoded.
+         * @param minY     - The y-value of the first row that was decoded.
+         * @param width    - The width of the decoded area.
+         * @param height   - The height of the decoded area.
+         * @param periodX  - The horizontal distance between the decoded pixels.
+         * @param periodY  - The vertical distance between the decoded rows.
+         * @param bands    - The bands of the image that are decoded.
+         */
+        @Override
+        public void imageUpdate(ImageReader source, BufferedImage theImage, int minX, int minY, int width,
+                                int height, int periodX, int periodY, int[] bands) {
+            if (stopped)
+                return;
+            int end = Math.min(minY + height, numRows);
+            if (minY > nextRow || minY + height <= nextRow || periodY != 1 || end - nextRow > ringRows) {
+                stop(nextRow > 0 ? new IOException(NOT_IN_ORDER_MSG) : null);
+                return;
+            }
+            try {
+                for (; nextRow < end; nextRow++) {
+                    theImage.getRGB(0, nextRow, row.length, 1, row, 0, row.length);
+                    consumer.accept(row, nextRow);
+                }
+            } catch (IOException e) {
+                stop(e);
+                return;
+            }
+            if (nextRow == numRows)
+                stop(null);
+        }
+
+        /**
+         * Nothing to do when a pass is complete.
+         *
+         * @param source   - The reader.
+         * @param theImage - The image that is decoded.
+         */
+        @Override
+        public void passComplete(ImageReader source, BufferedImage theImage) {
+        }
+
+        /**
+         * Thumbnails are not read.
+         */
+        @Override
+        public void thumbnailPassStarted(ImageReader source, BufferedImage theThumbnail, int pass, int minPass,
+                                         int maxPass, int minX, int minY, int periodX, int periodY,
+                                         int[] bands) {
+        }
+
+        /**
+         * Thumbnails are not read.
+         */
+        @Override
+        public void thumbnailUpdate(ImageReader source, BufferedImage theThumbnail, int minX, int minY,
+                                    int width, int height, int periodX, int periodY, int[] bands) {
+        }
+
+        /**
+         * Thumbnails are not read.
+         */
+        @Override
+        public void thumbnailPassComplete(ImageReader source, BufferedImage theThumbnail) {
+        }
+
+        /**
+         * Stops reading the image.
+         *
+         * @param e - The reason of a failure, or null if the image is read in strips or is done.
+         */
+        private void stop(IOException e) {
+            stopped = true;
+            failure = e;
+            reader.abort();
+        }
+    }
+}
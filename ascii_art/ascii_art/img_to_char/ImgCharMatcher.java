@@ -0,0 +1,16 @@
+package ascii_art.img_to_char;
+
+/**
+ * A strategy of converting an image to an Asci-Image - choosing a char for every sub-image.
+ */
+public interface ImgCharMatcher {
+
+    /**
+     * Divides the image to sub-images and finds a compatible Asci-Image.
+     *
+     * @param numCharsInRow - The number of the chars we want in each row in the Asci-Image.
+     * @param charSet       - The possible letters that can appear in the Asci-Image.
+     * @return - A compatible Asci-Image.
+     */
+    char[][] chooseChars(int numCharsInRow, Character[] charSet);
+}
@@ -0,0 +1,103 @@
+package ascii_art.img_to_char;
+
+import image.Image;
+
+import java.awt.*;
+
+/**
+ * Converts the pixels of an image to grey pixels.
+ * When the image is an ArgbImage the channels are unpacked from the ARGB ints in a primitive loop, when it
+ * is a MappedRawImage the pixels are read straight from the mapped file, and otherwise every pixel is read
+ * as a Color.
+ */
+final class Luminance {
+
+    // ========================== private constant ==========================
+
+    private static final double MULT_RED_TO_GREY = 0.2126;
+    private static final double MULT_GREEN_TO_GREY = 0.7152;
+    private static final double MULT_BLUE_TO_GREY = 0.0722;
+    private static final int RED_SHIFT = 16;
+    private static final int GREEN_SHIFT = 8;
+    private static final int CHANNEL_MASK = 0xff;
+
+    // ======================= package-private methods =======================
+
+    /**
+     * Converts a color to the compatible grey pixel.
+     *
+     * @param red   - The red channel, in [0,255].
+     * @param green - The green channel, in [0,255].
+     * @param blue  - The blue channel, in [0,255].
+     * @return - The grey pixel, in [0,255].
+     */
+    static double greyOf(int red, int green, int blue) {
+        return red * MULT_RED_TO_GREY + green * MULT_GREEN_TO_GREY + blue * MULT_BLUE_TO_GREY;
+    }
+
+    /**
+     * Converts a color to the compatible grey pixel.
+     *
+     * @param argb - The color, packed as ARGB (the alpha is ignored).
+     * @return - The grey pixel, in [0,255].
+     */
+    static double greyOf(int argb) {
+        return greyOf((argb >> RED_SHIFT) & CHANNEL_MASK, (argb >> GREEN_SHIFT) & CHANNEL_MASK,
+                argb & CHANNEL_MASK);
+    }
+
+    /**
+     * Converts a row of an image to grey pixels.
+     *
+     * @param image - The image.
+     * @param y     - The y coordinate of the row.
+     * @param width - The number of pixels to convert, from the left of the row.
+     * @param grey  - The array to write the grey pixels to, at least width long.
+     */
+    static void greyRow(Image image, int y, int width, double[] grey) {
+        if (image instanceof MappedRawImage) {
+            ((MappedRawImage) image).greyRow(y, width, grey);
+            return;
+        }
+        if (image instanceof ArgbImage) {
+            int[] argb = ((ArgbImage) image).getArgb();
+            int offset = y * image.getWidth();
+            for (int x = 0; x < width; x++)
+                grey[x] = greyOf(argb[offset + x]);
+            return;
+        }
+        for (int x = 0; x < width; x++) {
+            Color pixel = image.getPixel(x, y);
+            grey[x] = greyOf(pixel.getRed(), pixel.getGreen(), pixel.getBlue());
+        }
+    }
+
+    /**
+     * Reads a row of an image as packed ARGB pixels.
+     *
+     * @param image - The image.
+     * @param y     - The y coordinate of the row.
+     * @param width - The number of pixels to read, from the left of the row.
+     * @param argb  - The array to write the pixels to, at least width long.
+     */
+    static void argbRow(Image image, int y, int width, int[] argb) {
+        if (image instanceof MappedRawImage) {
+            ((MappedRawImage) image).argbRow(y, width, argb);
+            return;
+        }
+        if (image instanceof ArgbImage) {
+            System.arraycopy(((ArgbImage) image).getArgb(), y * image.getWidth(), argb, 0, width);
+            return;
+        }
+        for (int x = 0; x < width; x++)
+            argb[x] = image.getPixel(x, y).getRGB();
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Private constructor - the class has only static methods.
+     */
+    private Luminance() {
+    }
+}
@@ -0,0 +1,214 @@
+package ascii_art.img_to_char;
+
+import image.Image;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An image whose pixels are read straight from a memory-mapped raw file, without decoding it and without
+ * copying it to the heap - the pages of the file are read by the OS only when they are used, and stay in its
+ * page cache between runs. The file is a header (see RawImageWriter) followed by the pixels, row after row,
+ * either packed as 4 bytes of ARGB or as 1 byte of grey. Files bigger than 2GB are mapped in several
+ * segments of whole rows.
+ * Like a decoded image (see BufferedArgbImage), the image is padded with white to powers of two - the padding
+ * is not in the file, any pixel outside the pixels of the file is white.
+ */
+public class MappedRawImage implements Image {
+
+    // ========================== public constant ===========================
+
+    public static final int MAGIC = 0x41524157; // "ARAW"
+    public static final int FORMAT_ARGB = 0;
+    public static final int FORMAT_GREY = 1;
+    public static final int HEADER_BYTES = 4 * Integer.BYTES; // magic, format, width and height.
+
+    // ========================== private constant ==========================
+
+    private static final int GREY_TO_RGB = 0x010101;
+    private static final int OPAQUE = 0xff000000;
+    private static final int CHANNEL_MASK = 0xff;
+    private static final int PADDING_ARGB = 0xffffffff;
+    private static final String NOT_RAW_MSG = "Not a raw image file: ";
+
+    // =============================== fields ===============================
+
+    private final int width; // with the padding.
+    private final int height;
+    private final int imageWidth; // the pixels of the file.
+    private final int imageHeight;
+    private final int padX; // the pixels of the file start at (padX, padY).
+    private final int padY;
+    private final double paddingGrey;
+    private final boolean grey;
+    private final int rowBytes;
+    private final int rowsInSegment;
+    private final MappedByteBuffer[] segments;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Maps a raw image file.
+     *
+     * @param file - The raw image file.
+     * @return - The image.
+     * @throws IOException - If the file could not be mapped or it is not a valid raw image file.
+     */
+    public static MappedRawImage open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, HEADER_BYTES);
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC)
+                throw new IOException(NOT_RAW_MSG + file);
+            int format = header.getInt();
+            int width = header.getInt();
+            int height = header.getInt();
+            int pixelBytes = format == FORMAT_GREY ? 1 : Integer.BYTES;
+            if ((format != FORMAT_ARGB && format != FORMAT_GREY) || width <= 0 || height <= 0
+                    || channel.size() < HEADER_BYTES + (long) width * height * pixelBytes)
+                throw new IOException(NOT_RAW_MSG + file);
+            return new MappedRawImage(channel, width, height, format == FORMAT_GREY);
+        }
+    }
+
+    /**
+     * @param file - A file.
+     * @return - true if the file starts like a raw image file, false otherwise.
+     */
+    public static boolean isRaw(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = readFully(channel, Integer.BYTES);
+            return magic.remaining() == Integer.BYTES && magic.getInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Color getPixel(int x, int y) {
+        int imageX = x - padX;
+        int imageY = y - padY;
+        if (imageX < 0 || imageX >= imageWidth || imageY < 0 || imageY >= imageHeight)
+            return Color.WHITE;
+        MappedByteBuffer segment = segments[imageY / rowsInSegment];
+        int offset = (imageY % rowsInSegment) * rowBytes;
+        if (grey)
+            return new Color((segment.get(offset + imageX) & CHANNEL_MASK) * GREY_TO_RGB);
+        return new Color(segment.getInt(offset + imageX * Integer.BYTES));
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    // ======================= package-private methods =======================
+
+    /**
+     * Reads a row of the image as grey pixels.
+     *
+     * @param y     - The y coordinate of the row.
+     * @param width - The number of pixels to read, from the left of the row.
+     * @param row   - The array to write the grey pixels to, at least width long.
+     */
+    void greyRow(int y, int width, double[] row) {
+        int imageY = y - padY;
+        int left = Math.min(width, padX); // the pixels of the file in the row are [left, right).
+        int right = imageY < 0 || imageY >= imageHeight ? left : Math.min(width, padX + imageWidth);
+        Arrays.fill(row, 0, left, paddingGrey);
+        Arrays.fill(row, right, width, paddingGrey);
+        if (left == right)
+            return;
+        MappedByteBuffer segment = segments[imageY / rowsInSegment];
+        int offset = (imageY % rowsInSegment) * rowBytes;
+        if (grey) {
+            for (int x = left; x < right; x++)
+                row[x] = segment.get(offset + x - padX) & CHANNEL_MASK;
+            return;
+        }
+        for (int x = left; x < right; x++)
+            row[x] = Luminance.greyOf(segment.getInt(offset + (x - padX) * Integer.BYTES));
+    }
+
+    /**
+     * Reads a row of the image as packed ARGB pixels.
+     *
+     * @param y     - The y coordinate of the row.
+     * @param width - The number of pixels to read, from the left of the row.
+     * @param row   - The array to write the pixels to, at least width long.
+     */
+    void argbRow(int y, int width, int[] row) {
+        int imageY = y - padY;
+        int left = Math.min(width, padX); // the pixels of the file in the row are [left, right).
+        int right = imageY < 0 || imageY >= imageHeight ? left : Math.min(width, padX + imageWidth);
+        Arrays.fill(row, 0, left, PADDING_ARGB);
+        Arrays.fill(row, right, width, PADDING_ARGB);
+        if (left == right)
+            return;
+        MappedByteBuffer segment = segments[imageY / rowsInSegment];
+        int offset = (imageY % rowsInSegment) * rowBytes;
+        if (grey) {
+            for (int x = left; x < right; x++)
+                row[x] = OPAQUE | (segment.get(offset + x - padX) & CHANNEL_MASK) * GREY_TO_RGB;
+            return;
+        }
+        for (int x = left; x < right; x++)
+            row[x] = segment.getInt(offset + (x - padX) * Integer.BYTES);
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Reads the start of a file.
+     *
+     * @param channel - The channel of the file, at its start.
+     * @param bytes   - The number of bytes to read.
+     * @return - A buffer of the bytes that were read, ready to be read - shorter if the file is shorter.
+     * @throws IOException - If the reading failed.
+     */
+    private static ByteBuffer readFully(FileChannel channel, int bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+            continue;
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Constructor - maps the pixels of the file in segments of whole rows.
+     *
+     * @param channel - The channel of the file, after its header was validated.
+     * @param width   - The width of the pixels of the file.
+     * @param height  - The height of the pixels of the file.
+     * @param grey    - true if the pixels are 1 byte of grey, false if they are 4 bytes of ARGB.
+     * @throws IOException - If the file could not be mapped.
+     */
+    private MappedRawImage(FileChannel channel, int width, int height, boolean grey) throws IOException {
+        this.width = BufferedArgbImage.paddedSize(width);
+        this.height = BufferedArgbImage.paddedSize(height);
+        this.imageWidth = width;
+        this.imageHeight = height;
+        this.padX = (this.width - width) / 2;
+        this.padY = (this.height - height) / 2;
+        this.grey = grey;
+        this.paddingGrey = grey ? CHANNEL_MASK : Luminance.greyOf(PADDING_ARGB);
+        this.rowBytes = grey ? width : width * Integer.BYTES;
+        this.rowsInSegment = Math.max(1, Integer.MAX_VALUE / rowBytes);
+        this.segments = new MappedByteBuffer[(height + rowsInSegment - 1) / rowsInSegment];
+        for (int i = 0; i < segments.length; i++) {
+            int rows = Math.min(rowsInSegment, height - i * rowsInSegment);
+            long position = HEADER_BYTES + (long) i * rowsInSegment * rowBytes;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, (long) rows * rowBytes);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package ascii_art.img_to_char;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Converts an image file of a standard format (PNG, JPEG...) to a raw image file, once, so the next runs can
+ * map it with MappedRawImage instead of decoding it.
+ * The raw file starts with a header of 4 big-endian ints - the magic number, the format (ARGB or grey), the
+ * width and the height - followed by the pixels, row after row. The image is decoded once, and only a strip
+ * of its rows is held at a time (see ImageRows), so images larger than the heap can be converted too.
+ */
+public class RawImageWriter {
+
+    // ========================== private constant ==========================
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    private static final double ROUND = 0.5;
+    private static final String NO_READER_MSG = "No image reader for ";
+
+    // =========================== public methods ===========================
+
+    /**
+     * Converts an image file to a raw image file.
+     *
+     * @param source - The image file.
+     * @param target - The raw image file to create.
+     * @param grey   - true to keep 1 byte of grey per pixel, false to keep 4 bytes of ARGB.
+     * @throws IOException - If the image could not be read or the raw file could not be written.
+     */
+    public static void convert(File source, Path target, boolean grey) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source)) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext())
+                throw new IOException(NO_READER_MSG + source);
+            ImageReader reader = readers.next();
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(target), OUTPUT_BUFFER_SIZE))) {
+                reader.setInput(in, false, true);
+                write(reader, out, grey);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Writes the header and the pixels, row after row.
+     *
+     * @param reader - The reader of the image, with its input already set.
+     * @param out    - The output of the raw file.
+     * @param grey   - true to keep 1 byte of grey per pixel, false to keep 4 bytes of ARGB.
+     * @throws IOException - If the image could not be read or the raw file could not be written.
+     */
+    private static void write(ImageReader reader, DataOutputStream out, boolean grey) throws IOException {
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        out.writeInt(MappedRawImage.MAGIC);
+        out.writeInt(grey ? MappedRawImage.FORMAT_GREY : MappedRawImage.FORMAT_ARGB);
+        out.writeInt(width);
+        out.writeInt(height);
+
+        ImageRows.read(reader, height, (row, y) -> {
+            for (int pixel : row) {
+                if (grey)
+                    out.writeByte((int) (Luminance.greyOf(pixel) + ROUND));
+                else
+                    out.writeInt(pixel);
+            }
+        });
+    }
+}
@@ -0,0 +1,233 @@
+package ascii_art.img_to_char;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * The metrics of a single render - the wall time of every stage, the number of sub-images, the hits and
+ * misses of the brightness cache, the bytes written and an estimate of the allocated bytes.
+ * The stages are the chars (creating the lookup table of the char-set, including rendering glyphs that are
+ * not in the atlas yet), the brightness (finding the brightnesses of the sub-images), the matching (the rest
+ * of choosing the chars) and the output. The allocations are counted only on the thread of the matching and
+ * the thread of the output, so the work of the parallel mode on other threads is not included.
+ */
+public class RenderStats {
+
+    // ========================== private constant ==========================
+
+    private static final double NANOS_IN_MILLI = 1e6;
+    private static final long UNKNOWN = -1;
+    private static final String REPORT_FORMAT = "chars: %.2f ms, brightness: %.2f ms, matching: %.2f ms, " +
+            "output: %.2f ms%nsub-images: %d, from the pyramid: %d, cache hits: %d, cache misses: %d " +
+            "(hit ratio %.2f)%n" +
+            "bytes written: %d, allocated: %s";
+    private static final String UNKNOWN_ALLOCATED = "unknown";
+    private static final String ALLOCATED_FORMAT = "~%d bytes";
+
+    // =============================== fields ===============================
+
+    private final TileBrightnessCache cache;
+    private final long hitsAtStart;
+    private final long missesAtStart;
+    private final long allocatedAtStart;
+    private long outputStart = 0;
+    private long allocatedAtOutputStart = UNKNOWN;
+    private long charsNanos = 0;
+    private long brightnessNanos = 0;
+    private long matchingNanos = 0;
+    private long outputNanos = 0;
+    private long tiles = 0;
+    private long pyramidTiles = 0;
+    private long cacheHits = 0;
+    private long cacheMisses = 0;
+    private long bytesWritten = 0;
+    private long allocatedBytes = UNKNOWN;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Ends the matching - called after choosing the chars.
+     *
+     * @param totalNanos - The wall time of choosing the chars, including the chars and brightness stages.
+     * @param asciiArt   - The chosen Asci-Image.
+     */
+    public void endMatching(long totalNanos, char[][] asciiArt) {
+        matchingNanos = Math.max(0, totalNanos - charsNanos - brightnessNanos);
+        tiles = 0;
+        for (char[] row : asciiArt)
+            tiles += row.length;
+        cacheHits = cache.getHits() - hitsAtStart;
+        cacheMisses = cache.getMisses() - missesAtStart;
+        allocatedBytes = allocatedSince(allocatedAtStart);
+    }
+
+    /**
+     * Starts the output - called right before writing the Asci-Image, on the thread that writes it (which
+     * may be another thread than the one of the matching).
+     */
+    public void startOutput() {
+        outputStart = System.nanoTime();
+        allocatedAtOutputStart = currentThreadAllocatedBytes();
+    }
+
+    /**
+     * Ends the render - called after writing the Asci-Image, on the thread that wrote it.
+     *
+     * @param bytes - The number of bytes written.
+     */
+    public void endOutput(long bytes) {
+        outputNanos = System.nanoTime() - outputStart;
+        bytesWritten = bytes;
+        long outputAllocated = allocatedSince(allocatedAtOutputStart);
+        allocatedBytes = allocatedBytes == UNKNOWN || outputAllocated == UNKNOWN ? UNKNOWN :
+                allocatedBytes + outputAllocated;
+    }
+
+    /**
+     * @return - The wall time, in nanoseconds, of creating the lookup table of the char-set.
+     */
+    public long getCharsNanos() {
+        return charsNanos;
+    }
+
+    /**
+     * @return - The wall time, in nanoseconds, of finding the brightnesses of the sub-images.
+     */
+    public long getBrightnessNanos() {
+        return brightnessNanos;
+    }
+
+    /**
+     * @return - The wall time, in nanoseconds, of the rest of choosing the chars.
+     */
+    public long getMatchingNanos() {
+        return matchingNanos;
+    }
+
+    /**
+     * @return - The wall time, in nanoseconds, of writing the Asci-Image.
+     */
+    public long getOutputNanos() {
+        return outputNanos;
+    }
+
+    /**
+     * @return - The number of sub-images (chars) of the Asci-Image.
+     */
+    public long getTiles() {
+        return tiles;
+    }
+
+    /**
+     * @return - The number of sub-images whose brightness was read from the brightness pyramid (which is not
+     * counted as a hit or a miss of the cache).
+     */
+    public long getPyramidTiles() {
+        return pyramidTiles;
+    }
+
+    /**
+     * @return - The number of sub-images whose brightness was found in the cache.
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * @return - The number of sub-images whose brightness was not found in the cache.
+     */
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * @return - The part of the sub-images whose brightness was found in the cache, or 0 if none was looked
+     * up.
+     */
+    public double getCacheHitRatio() {
+        long lookups = cacheHits + cacheMisses;
+        return lookups == 0 ? 0 : (double) cacheHits / lookups;
+    }
+
+    /**
+     * @return - The number of bytes written by the output.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * @return - The bytes allocated by the threads of the matching and the output, or -1 if the JVM can't
+     * count them.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return - A report of all the metrics, in two lines.
+     */
+    @Override
+    public String toString() {
+        return String.format(REPORT_FORMAT, charsNanos / NANOS_IN_MILLI, brightnessNanos / NANOS_IN_MILLI,
+                matchingNanos / NANOS_IN_MILLI, outputNanos / NANOS_IN_MILLI, tiles, pyramidTiles, cacheHits,
+                cacheMisses, getCacheHitRatio(), bytesWritten, allocatedBytes == UNKNOWN ? UNKNOWN_ALLOCATED :
+                        String.format(ALLOCATED_FORMAT, allocatedBytes));
+    }
+
+    // ======================= package-private methods =======================
+
+    /**
+     * Constructor - starts a render.
+     *
+     * @param cache - The brightness cache of the matcher, whose counters are read at the start and the end.
+     */
+    RenderStats(TileBrightnessCache cache) {
+        this.cache = cache;
+        this.hitsAtStart = cache.getHits();
+        this.missesAtStart = cache.getMisses();
+        this.allocatedAtStart = currentThreadAllocatedBytes();
+    }
+
+    /**
+     * @param nanos - Wall time to add to the chars stage.
+     */
+    void addCharsNanos(long nanos) {
+        charsNanos += nanos;
+    }
+
+    /**
+     * @param nanos - Wall time to add to the brightness stage.
+     */
+    void addBrightnessNanos(long nanos) {
+        brightnessNanos += nanos;
+    }
+
+    /**
+     * @param numTiles - The number of sub-images whose brightness was read from the brightness pyramid.
+     */
+    void addPyramidTiles(long numTiles) {
+        pyramidTiles += numTiles;
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * @param allocatedAtStart - The bytes the current thread allocated at some point, or -1 if unknown.
+     * @return - The bytes the current thread allocated since then, or -1 if unknown.
+     */
+    private static long allocatedSince(long allocatedAtStart) {
+        long allocated = currentThreadAllocatedBytes();
+        return allocated == UNKNOWN || allocatedAtStart == UNKNOWN ? UNKNOWN : allocated - allocatedAtStart;
+    }
+
+    /**
+     * @return - The bytes allocated by the current thread so far, or -1 if the JVM can't count them.
+     */
+    private static long currentThreadAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean))
+            return UNKNOWN;
+        return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,139 @@
+package ascii_art.img_to_char;
+
+/**
+ * Converts an image to an Asci-Image by the shapes of the chars and not only by their brightness.
+ * Every sub-image is divided to 8x8 cells, and every cell that is brighter than the sub-image is set in a
+ * 64-bit bitset. The chosen char is the one whose shape (see GlyphShapeAtlas) differs from the bitset in the
+ * fewest cells - the Hamming distance, found with a single Long.bitCount per char. A sub-image with almost
+ * no contrast has no shape, so its char is chosen by its brightness like in BrightnessImgCharMatcher.
+ * The cells are read from the summed-area table of the image in O(1) each.
+ */
+public class ShapeImgCharMatcher implements ImgCharMatcher {
+
+    // ========================== private constant ==========================
+
+    private static final int CELLS_IN_ROW = GlyphShapeAtlas.CELLS_IN_ROW;
+    private static final double MIN_CONTRAST = 0.1; // between the brightest and the darkest cells.
+
+    // =============================== fields ===============================
+
+    private final BrightnessImgCharMatcher brightnessMatcher;
+    private final GlyphShapeAtlas atlas;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Constructor.
+     *
+     * @param brightnessMatcher - The matcher whose summed-area table, brightnesses of sub-images and lookup
+     *                          tables are used, so switching between the matchers does not find them again.
+     * @param font              - The font of the Asci-Image.
+     */
+    public ShapeImgCharMatcher(BrightnessImgCharMatcher brightnessMatcher, String font) {
+        this.brightnessMatcher = brightnessMatcher;
+        this.atlas = GlyphShapeAtlas.get(font);
+    }
+
+    /**
+     * Divides the image to sub-images and finds a compatible Asci-Image, matching the shape of every
+     * sub-image with contrast to the shapes of the chars, and the other sub-images by their brightness.
+     *
+     * @param numCharsInRow - The number of the chars we want in each row in the Asci-Image.
+     * @param charSet       - The possible letters that can appear in the Asci-Image.
+     * @return - A compatible Asci-Image.
+     */
+    @Override
+    public char[][] chooseChars(int numCharsInRow, Character[] charSet) {
+        CharBrightnessLookup lookup = brightnessMatcher.lookupOf(charSet);
+        double[] grid = brightnessMatcher.subImageBrightnesses(numCharsInRow);
+        SummedAreaTable table = brightnessMatcher.summedAreaTable();
+        long[] shapes = new long[charSet.length];
+        for (int i = 0; i < charSet.length; i++)
+            shapes[i] = atlas.shape(charSet[i]);
+
+        int pixels = table.getWidth() / numCharsInRow;
+        int[] cellStart = new int[CELLS_IN_ROW];
+        int[] cellSize = new int[CELLS_IN_ROW];
+        for (int c = 0; c < CELLS_IN_ROW; c++) {
+            cellStart[c] = c * pixels / CELLS_IN_ROW;
+            cellSize[c] = Math.max(1, (c + 1) * pixels / CELLS_IN_ROW - cellStart[c]); // tiny sub-images.
+        }
+
+        int numCols = table.getWidth() / pixels;
+        char[][] asciiArt = new char[table.getHeight() / pixels][numCols];
+        double[] cells = new double[CELLS_IN_ROW * CELLS_IN_ROW];
+        for (int i = 0; i < asciiArt.length; i++) {
+            for (int j = 0; j < numCols; j++) {
+                double brightness = grid[i * numCols + j];
+                if (!readCells(table, j * pixels, i * pixels, cellStart, cellSize, cells)) {
+                    asciiArt[i][j] = lookup.charOf(brightness);
+                    continue;
+                }
+                asciiArt[i][j] = charSet[closestShape(bitsetOf(cells, brightness), shapes)];
+            }
+        }
+        return asciiArt;
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Reads the brightnesses of the 8x8 cells of a sub-image.
+     *
+     * @param table     - The summed-area table of the image.
+     * @param x         - The x coordinate of the top-left corner of the sub-image.
+     * @param y         - The y coordinate of the top-left corner of the sub-image.
+     * @param cellStart - The offset of every row or column of cells in the sub-image.
+     * @param cellSize  - The size of every row or column of cells in pixels.
+     * @param cells     - The array to write the brightness of cell (row, col) to, at row * 8 + col.
+     * @return - true if the sub-image has enough contrast to have a shape, false otherwise.
+     */
+    private static boolean readCells(SummedAreaTable table, int x, int y, int[] cellStart, int[] cellSize,
+                                     double[] cells) {
+        double min = 1;
+        double max = 0;
+        for (int row = 0; row < CELLS_IN_ROW; row++) {
+            for (int col = 0; col < CELLS_IN_ROW; col++) {
+                double cell = table.rectangleBrightness(x + cellStart[col], y + cellStart[row],
+                        cellSize[col], cellSize[row]);
+                cells[row * CELLS_IN_ROW + col] = cell;
+                min = Math.min(min, cell);
+                max = Math.max(max, cell);
+            }
+        }
+        return max - min >= MIN_CONTRAST;
+    }
+
+    /**
+     * @param cells      - The brightnesses of the 8x8 cells of a sub-image.
+     * @param brightness - The brightness of the sub-image.
+     * @return - The bitset of the cells that are brighter than the sub-image.
+     */
+    private static long bitsetOf(double[] cells, double brightness) {
+        long bitset = 0;
+        for (int k = 0; k < cells.length; k++)
+            if (cells[k] > brightness)
+                bitset |= 1L << k;
+        return bitset;
+    }
+
+    /**
+     * Finds the char with the closest shape - when two chars are equally close, the first one is chosen.
+     *
+     * @param bitset - The bitset of a sub-image.
+     * @param shapes - The shapes of the chars of the char-set.
+     * @return - The index of the closest char.
+     */
+    private static int closestShape(long bitset, long[] shapes) {
+        int closest = 0;
+        int minDistance = Long.SIZE + 1;
+        for (int i = 0; i < shapes.length; i++) {
+            int distance = Long.bitCount(bitset ^ shapes[i]);
+            if (distance < minDistance) {
+                minDistance = distance;
+                closest = i;
+            }
+        }
+        return closest;
+    }
+}
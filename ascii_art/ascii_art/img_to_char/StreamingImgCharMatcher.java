@@ -0,0 +1,117 @@
+package ascii_art.img_to_char;
+
+import ascii_art.output.AsciiRowOutput;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Converts an image file to an Asci-Image without decoding the whole image.
+ * The image is decoded once, from the top row to the bottom one (see ImageRows), and every row of the
+ * Asci-Image is written to the output as soon as its row of sub-images was decoded. Apart from a strip of
+ * the decoded rows, only O(width) state is held, so images larger than the heap can be converted.
+ */
+public class StreamingImgCharMatcher {
+
+    // ========================== private constant ==========================
+
+    private static final int RGB = 255;
+    private static final String NO_READER_MSG = "No image reader for ";
+    private static final String ILLEGAL_CHARS_IN_ROW_MSG = "Illegal number of chars in a row: ";
+
+    // =============================== fields ===============================
+
+    private final String font;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Constructor.
+     *
+     * @param font - The font of the Asci-Image.
+     */
+    public StreamingImgCharMatcher(String font) {
+        this.font = font;
+    }
+
+    /**
+     * Converts an image file to an Asci-Image, row by row.
+     *
+     * @param file          - The image file.
+     * @param numCharsInRow - The number of the chars we want in each row in the Asci-Image.
+     * @param charSet       - The possible letters that can appear in the Asci-Image.
+     * @param output        - The output every row of the Asci-Image is written to.
+     * @throws IOException              - If the image could not be read or the output could not be written.
+     * @throws IllegalArgumentException - If the number of chars in a row is not positive or is more than
+     *                                  the width of the image.
+     */
+    public void convert(File file, int numCharsInRow, Character[] charSet, AsciiRowOutput output)
+            throws IOException {
+        CharBrightnessLookup lookup = BrightnessImgCharMatcher.createLookup(charSet, font);
+        try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext())
+                throw new IOException(NO_READER_MSG + file);
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, false, true);
+                if (numCharsInRow <= 0 || numCharsInRow > reader.getWidth(0))
+                    throw new IllegalArgumentException(ILLEGAL_CHARS_IN_ROW_MSG + numCharsInRow);
+                convert(reader, numCharsInRow, lookup, output);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Reads the rows of the image once, from the top to the bottom, and writes a row of the Asci-Image after
+     * every row of sub-images.
+     *
+     * @param reader        - The reader of the image, with its input already set.
+     * @param numCharsInRow - The number of the chars we want in each row in the Asci-Image.
+     * @param lookup        - The lookup table from a brightness to the closest char of the char-set.
+     * @param output        - The output every row of the Asci-Image is written to.
+     * @throws IOException - If the image could not be read or the output could not be written.
+     */
+    private void convert(ImageReader reader, int numCharsInRow, CharBrightnessLookup lookup,
+                         AsciiRowOutput output) throws IOException {
+        int pixels = reader.getWidth(0) / numCharsInRow;
+        int numRows = reader.getHeight(0) / pixels;
+        double[] sums = new double[numCharsInRow];
+        char[] row = new char[numCharsInRow];
+        ImageRows.read(reader, numRows * pixels, (argb, y) -> {
+            addRow(argb, pixels, sums);
+            if ((y + 1) % pixels != 0)
+                return;
+            for (int j = 0; j < numCharsInRow; j++)
+                row[j] = lookup.charOf((sums[j] / (pixels * pixels)) / RGB);
+            output.outputRow(row);
+            Arrays.fill(sums, 0);
+        });
+    }
+
+    /**
+     * Adds the grey pixels of a row of the image to the sums of the sub-images of its row of sub-images.
+     *
+     * @param argb   - The pixels of the row, packed as ARGB (pixels after the last whole sub-image are
+     *               ignored).
+     * @param pixels - The size of a sub-image in pixels.
+     * @param sums   - The sums of the sub-images.
+     */
+    private static void addRow(int[] argb, int pixels, double[] sums) {
+        for (int j = 0; j < sums.length; j++) {
+            double sum = 0;
+            for (int x = j * pixels; x < (j + 1) * pixels; x++)
+                sum += Luminance.greyOf(argb[x]);
+            sums[j] += sum;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ascii_art.img_to_char;
+
+import image.Image;
+
+/**
+ * A summed-area table (integral image) of the grey values of an image.
+ * The table is built once in a single pass over the pixels, and then the mean brightness of any
+ * rectangle in the image is found in O(1) by 4 reads from the table.
+ */
+public class SummedAreaTable {
+
+    // ========================== private constant ==========================
+
+    private static final int RGB = 255;
+
+    // =============================== fields ===============================
+
+    private final int width;
+    private final int height;
+    private final double[] table; // (width + 1) * (height + 1) cells, the first row and column are zeros.
+
+    // =========================== public methods ===========================
+
+    /**
+     * Constructor - builds the table of the given image.
+     *
+     * @param image - The image to build the table of.
+     */
+    public SummedAreaTable(Image image) {
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        this.table = new double[(width + 1) * (height + 1)];
+
+        int stride = width + 1;
+        double[] grey = new double[width];
+        for (int y = 0; y < height; y++) {
+            Luminance.greyRow(image, y, width, grey);
+            double rowSum = 0;
+            int cell = (y + 1) * stride + 1;
+            for (int x = 0; x < width; x++, cell++) {
+                rowSum += grey[x];
+                table[cell] = table[cell - stride] + rowSum;
+            }
+        }
+    }
+
+    /**
+     * Finds the brightness of a square in the image - the mean of its grey pixels, normalized to [0,1].
+     *
+     * @param x    - The x coordinate of the top-left corner of the square.
+     * @param y    - The y coordinate of the top-left corner of the square.
+     * @param size - The size of the square in pixels.
+     * @return - The brightness of the square.
+     */
+    public double squareBrightness(int x, int y, int size) {
+        int stride = width + 1;
+        int top = y * stride;
+        int bottom = (y + size) * stride;
+        double sum = table[bottom + x + size] - table[bottom + x] - table[top + x + size] + table[top + x];
+        return (sum / (size * size)) / RGB;
+    }
+
+    /**
+     * Finds the brightness of a rectangle in the image - the mean of its grey pixels, normalized to [0,1].
+     *
+     * @param x      - The x coordinate of the top-left corner of the rectangle.
+     * @param y      - The y coordinate of the top-left corner of the rectangle.
+     * @param width  - The width of the rectangle in pixels.
+     * @param height - The height of the rectangle in pixels.
+     * @return - The brightness of the rectangle.
+     */
+    public double rectangleBrightness(int x, int y, int width, int height) {
+        int stride = this.width + 1;
+        int top = y * stride;
+        int bottom = (y + height) * stride;
+        double sum = table[bottom + x + width] - table[bottom + x] - table[top + x + width] + table[top + x];
+        return (sum / (width * height)) / RGB;
+    }
+
+    /**
+     * @return - The width of the image of the table.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return - The height of the image of the table.
+     */
+    public int getHeight() {
+        return height;
+    }
+}
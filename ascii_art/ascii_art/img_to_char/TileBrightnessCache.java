@@ -0,0 +1,119 @@
+package ascii_art.img_to_char;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the brightnesses of the sub-images of an image.
+ * For every size of sub-images, the brightnesses are kept as one primitive grid (the brightness of the
+ * sub-image in row i and column j is in cell i * numCols + j), so a sub-image is identified by its row,
+ * column and size without any object per sub-image.
+ * When the grids take more memory than the budget, the least recently used ones are evicted, but the grid
+ * of the last render is always kept (even if it alone is bigger than the budget), so changing only the
+ * char-set never needs to find the brightnesses again.
+ */
+public class TileBrightnessCache {
+
+    // ========================== private constant ==========================
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    // =============================== fields ===============================
+
+    private final long budgetBytes;
+    private final LinkedHashMap<Integer, double[]> grids =
+            new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true); // ordered from least recently used.
+    private int lastPixels = 0;
+    private double[] lastGrid = null; // the grid of the last render, which is never evicted.
+    private long usedBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Constructor.
+     *
+     * @param budgetBytes - The maximal memory, in bytes, the grids may take.
+     */
+    public TileBrightnessCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Returns the grid of the brightnesses of the sub-images of a given size.
+     *
+     * @param pixels   - The size of the sub-images in pixels.
+     * @param numTiles - The number of sub-images in the grid, counted as hits or as misses.
+     * @return - The grid, or null if it is not in the cache.
+     */
+    public synchronized double[] get(int pixels, int numTiles) {
+        double[] grid = pixels == lastPixels ? lastGrid : grids.get(pixels);
+        if (grid == null) {
+            misses += numTiles;
+            return null;
+        }
+        hits += numTiles;
+        lastPixels = pixels;
+        lastGrid = grid;
+        return grid;
+    }
+
+    /**
+     * Adds the grid of the sub-images of a given size, evicting the least recently used grids if needed.
+     * A grid that is bigger than the whole budget is kept only as long as it is the grid of the last render.
+     *
+     * @param pixels - The size of the sub-images in pixels.
+     * @param grid   - The brightnesses of the sub-images.
+     */
+    public synchronized void put(int pixels, double[] grid) {
+        lastPixels = pixels;
+        lastGrid = grid;
+        long gridBytes = sizeOf(grid);
+        if (gridBytes > budgetBytes)
+            return;
+        double[] old = grids.remove(pixels);
+        if (old != null)
+            usedBytes -= sizeOf(old);
+        Iterator<Map.Entry<Integer, double[]>> eldest = grids.entrySet().iterator();
+        while (usedBytes + gridBytes > budgetBytes && eldest.hasNext()) {
+            usedBytes -= sizeOf(eldest.next().getValue());
+            eldest.remove();
+        }
+        grids.put(pixels, grid);
+        usedBytes += gridBytes;
+    }
+
+    /**
+     * @return - The number of sub-images whose brightness was found in the cache.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return - The number of sub-images whose brightness was not found in the cache.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return - The memory, in bytes, the grids in the cache take.
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * @param grid - A grid of brightnesses.
+     * @return - The memory of the grid in bytes.
+     */
+    private static long sizeOf(double[] grid) {
+        return (long) grid.length * Double.BYTES;
+    }
+}
@@ -0,0 +1,19 @@
+package ascii_art.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * An output that gets the Asci-Image one row at a time, so the whole Asci-Image never has to be
+ * held in memory.
+ */
+public interface AsciiRowOutput extends Closeable {
+
+    /**
+     * Writes the next row of the Asci-Image. The array may be reused by the caller after the call.
+     *
+     * @param row - The chars of the row.
+     * @throws IOException - If the writing failed.
+     */
+    void outputRow(char[] row) throws IOException;
+}
@@ -0,0 +1,111 @@
+package ascii_art.output;
+
+import ascii_output.AsciiOutput;
+
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Prints an Asci-Image to the console through a single pre-sized buffer.
+ * The whole Asci-Image (or a large chunk of rows, when it is written row by row) is printed with one call,
+ * instead of a call per char or per row. The output counts the bytes it printed (see getBytesWritten) -
+ * when the charset of the console encodes ASCII as one byte per char, a chunk of ASCII chars is counted by
+ * its length, without encoding it again.
+ */
+public class BufferedConsoleAsciiOutput implements AsciiOutput, AsciiRowOutput {
+
+    // ========================== private constant ==========================
+
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final char NEW_LINE = '\n';
+    private static final int ASCII_CHARS = 128;
+    private static final Charset CHARSET = Charset.defaultCharset(); // the charset System.out encodes with.
+    private static final boolean ONE_BYTE_ASCII = isOneByteAscii();
+
+    // =============================== fields ===============================
+
+    private final StringBuilder buffer = new StringBuilder(CHUNK_SIZE);
+    private long bytesWritten = 0;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Prints the whole Asci-Image.
+     *
+     * @param chars - The Asci-Image.
+     */
+    @Override
+    public void output(char[][] chars) {
+        int len = 0;
+        for (char[] row : chars)
+            len += row.length + 1;
+        buffer.ensureCapacity(len);
+        for (char[] row : chars)
+            buffer.append(row).append(NEW_LINE);
+        close();
+    }
+
+    /**
+     * Adds the next row of the Asci-Image, and prints the buffered rows once they fill a chunk.
+     *
+     * @param row - The chars of the row.
+     */
+    @Override
+    public void outputRow(char[] row) {
+        buffer.append(row).append(NEW_LINE);
+        if (buffer.length() >= CHUNK_SIZE)
+            flush();
+    }
+
+    /**
+     * Prints the rows that are left in the buffer.
+     */
+    @Override
+    public void close() {
+        flush();
+        System.out.flush();
+    }
+
+    /**
+     * @return - The number of bytes that were printed so far, encoded with the charset of the console.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Prints the content of the buffer and empties it.
+     */
+    private void flush() {
+        bytesWritten += encodedLength(buffer);
+        System.out.append(buffer);
+        buffer.setLength(0);
+    }
+
+    /**
+     * @param chars - Chars to print.
+     * @return - The number of bytes of the chars, encoded with the charset of the console.
+     */
+    private static long encodedLength(CharSequence chars) {
+        if (ONE_BYTE_ASCII) {
+            int i = 0;
+            while (i < chars.length() && chars.charAt(i) < ASCII_CHARS)
+                i++;
+            if (i == chars.length())
+                return i;
+        }
+        return CHARSET.encode(CharBuffer.wrap(chars)).remaining();
+    }
+
+    /**
+     * @return - true if the charset of the console encodes every ASCII char as one byte, false otherwise.
+     */
+    private static boolean isOneByteAscii() {
+        char[] ascii = new char[ASCII_CHARS];
+        for (char c = 0; c < ASCII_CHARS; c++)
+            ascii[c] = c;
+        return CHARSET.encode(CharBuffer.wrap(ascii)).remaining() == ASCII_CHARS;
+    }
+}
@@ -0,0 +1,208 @@
+package ascii_art.output;
+
+import ascii_output.AsciiOutput;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes an Asci-Image to an HTML file through a single direct buffer of a file channel.
+ * The chars are escaped while they are copied to the buffer, and the buffer is written to the file only
+ * when it is full, so writing a wide Asci-Image does not allocate anything per char or per row.
+ * The Asci-Image can be written at once with "output", or row by row with "outputRow" and "close".
+ * Sub-classes can write other markup between the chars with the protected methods.
+ */
+public class BufferedHtmlAsciiOutput implements AsciiOutput, AsciiRowOutput {
+
+    // ========================== private constant ==========================
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_ESCAPED_CHAR_LEN = 8; // "&#65535;"
+    private static final int LAST_ASCII_CHAR = 127;
+    private static final String HTML_HEADER = "<!DOCTYPE html>\n<html>\n" +
+            "<head><meta charset=\"UTF-8\"></head>\n<body style=\"margin:0\">\n" +
+            "<pre style=\"font-family:'%s';font-size:4px;line-height:4px;letter-spacing:1.6px;margin:0\">\n";
+    private static final String HTML_FOOTER = "</pre>\n</body>\n</html>\n";
+    private static final byte NEW_LINE = '\n';
+    private static final byte[] ESCAPED_LT = "&lt;".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ESCAPED_GT = "&gt;".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ESCAPED_AMP = "&amp;".getBytes(StandardCharsets.US_ASCII);
+    private static final String ESCAPED_CODE_FORMAT = "&#%d;";
+
+    // =============================== fields ===============================
+
+    private final String filename;
+    private final String fontName;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private FileChannel channel = null; // opened on the first row.
+
+    // =========================== public methods ===========================
+
+    /**
+     * Constructor.
+     *
+     * @param filename - The name of the HTML file.
+     * @param fontName - The font the Asci-Image is shown with.
+     */
+    public BufferedHtmlAsciiOutput(String filename, String fontName) {
+        this.filename = filename;
+        this.fontName = fontName;
+    }
+
+    /**
+     * Writes the whole Asci-Image to the file. The file is closed also if the writing failed.
+     *
+     * @param chars - The Asci-Image.
+     */
+    @Override
+    public void output(char[][] chars) {
+        try (AsciiRowOutput output = this) {
+            for (char[] row : chars)
+                output.outputRow(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the next row of the Asci-Image, and creates the file with the HTML header before the first row.
+     *
+     * @param row - The chars of the row.
+     * @throws IOException - If the writing failed.
+     */
+    @Override
+    public void outputRow(char[] row) throws IOException {
+        for (char c : row)
+            putEscaped(c);
+        putNewLine();
+    }
+
+    /**
+     * Writes the HTML footer and closes the file. The file is closed also if the writing failed.
+     *
+     * @throws IOException - If the writing failed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel == null)
+            open();
+        try {
+            putString(HTML_FOOTER);
+            flush();
+        } finally {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // ========================== protected methods ==========================
+
+    /**
+     * Copies a single char to the buffer, escaped if needed, and creates the file before the first char.
+     *
+     * @param c - The char.
+     * @throws IOException - If the writing failed.
+     */
+    protected void putEscaped(char c) throws IOException {
+        ensureRoom(MAX_ESCAPED_CHAR_LEN);
+        switch (c) {
+            case '<':
+                buffer.put(ESCAPED_LT);
+                break;
+            case '>':
+                buffer.put(ESCAPED_GT);
+                break;
+            case '&':
+                buffer.put(ESCAPED_AMP);
+                break;
+            default:
+                if (c <= LAST_ASCII_CHAR)
+                    buffer.put((byte) c);
+                else
+                    buffer.put(String.format(ESCAPED_CODE_FORMAT, (int) c)
+                            .getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Copies the end of a row to the buffer.
+     *
+     * @throws IOException - If the writing failed.
+     */
+    protected void putNewLine() throws IOException {
+        ensureRoom(1);
+        buffer.put(NEW_LINE);
+    }
+
+    /**
+     * Copies ASCII markup to the buffer, as is, and creates the file before the first markup.
+     *
+     * @param markup - The markup.
+     * @throws IOException - If the writing failed.
+     */
+    protected void putMarkup(byte[] markup) throws IOException {
+        ensureRoom(markup.length);
+        buffer.put(markup);
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Creates the file if it was not created yet, and flushes the buffer if it has no room for some bytes.
+     *
+     * @param bytes - The number of bytes that are about to be copied, at most the size of the buffer.
+     * @throws IOException - If the writing failed.
+     */
+    private void ensureRoom(int bytes) throws IOException {
+        if (channel == null)
+            open();
+        if (buffer.remaining() < bytes)
+            flush();
+    }
+
+    /**
+     * Creates the file and writes the HTML header.
+     *
+     * @throws IOException - If the file could not be created.
+     */
+    private void open() throws IOException {
+        channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.clear();
+        putString(String.format(HTML_HEADER, fontName));
+    }
+
+    /**
+     * Copies a string to the buffer, flushing it as needed.
+     *
+     * @param s - The string.
+     * @throws IOException - If the writing failed.
+     */
+    private void putString(String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        for (int offset = 0; offset < bytes.length; ) {
+            if (!buffer.hasRemaining())
+                flush();
+            int len = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, len);
+            offset += len;
+        }
+    }
+
+    /**
+     * Writes the content of the buffer to the file and empties it.
+     *
+     * @throws IOException - If the writing failed.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+}
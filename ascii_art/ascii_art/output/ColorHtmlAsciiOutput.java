@@ -0,0 +1,138 @@
+package ascii_art.output;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a colored Asci-Image to a compact HTML file.
+ * The colors are quantized to 4 bits per channel, so they are written in the short "#rgb" form, and a run of
+ * chars with the same quantized color (also across rows) is wrapped in a single span. Areas of the same color
+ * then cost almost nothing more than in the monochrome file.
+ */
+public class ColorHtmlAsciiOutput extends BufferedHtmlAsciiOutput {
+
+    // ========================== private constant ==========================
+
+    private static final int RED_SHIFT = 16;
+    private static final int GREEN_SHIFT = 8;
+    private static final int CHANNEL_MASK = 0xff;
+    private static final int QUANT_LEVELS = 15; // the biggest hex digit of a channel.
+    private static final int QUANT_RED_SHIFT = 8;
+    private static final int QUANT_GREEN_SHIFT = 4;
+    private static final int HALF_CHANNEL = 127;
+    private static final int NO_COLOR = -1;
+    private static final String SPAN_START_FORMAT = "<span style=color:#%x%x%x>";
+    private static final byte[] SPAN_END = "</span>".getBytes(StandardCharsets.US_ASCII);
+
+    // =============================== fields ===============================
+
+    private int spanColor = NO_COLOR; // the quantized color of the open span.
+
+    // =========================== public methods ===========================
+
+    /**
+     * Constructor.
+     *
+     * @param filename - The name of the HTML file.
+     * @param fontName - The font the Asci-Image is shown with.
+     */
+    public ColorHtmlAsciiOutput(String filename, String fontName) {
+        super(filename, fontName);
+    }
+
+    /**
+     * Writes the whole colored Asci-Image to the file. The file is closed also if the writing failed.
+     *
+     * @param chars  - The Asci-Image.
+     * @param colors - The color of every char, packed as RGB.
+     */
+    public void output(char[][] chars, int[][] colors) {
+        try (ColorHtmlAsciiOutput output = this) {
+            for (int i = 0; i < chars.length; i++)
+                output.outputRow(chars[i], colors[i]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the next row of the colored Asci-Image.
+     *
+     * @param row    - The chars of the row.
+     * @param colors - The color of every char of the row, packed as RGB.
+     * @throws IOException - If the writing failed.
+     */
+    public void outputRow(char[] row, int[] colors) throws IOException {
+        for (int j = 0; j < row.length; j++) {
+            int color = quantize(colors[j]);
+            if (color != spanColor) {
+                if (spanColor != NO_COLOR)
+                    putMarkup(SPAN_END);
+                putMarkup(String.format(SPAN_START_FORMAT, color >> QUANT_RED_SHIFT,
+                        (color >> QUANT_GREEN_SHIFT) & QUANT_LEVELS, color & QUANT_LEVELS)
+                        .getBytes(StandardCharsets.US_ASCII));
+                spanColor = color;
+            }
+            putEscaped(row[j]);
+        }
+        putNewLine();
+    }
+
+    /**
+     * Writes the next row without colors - closes the open span, so the row has the default color.
+     *
+     * @param row - The chars of the row.
+     * @throws IOException - If the writing failed.
+     */
+    @Override
+    public void outputRow(char[] row) throws IOException {
+        closeSpan();
+        super.outputRow(row);
+    }
+
+    /**
+     * Closes the open span, writes the HTML footer and closes the file.
+     *
+     * @throws IOException - If the writing failed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            closeSpan();
+        } finally {
+            super.close();
+        }
+    }
+
+    // =========================== private methods ===========================
+
+    /**
+     * Closes the open span, if there is one.
+     *
+     * @throws IOException - If the writing failed.
+     */
+    private void closeSpan() throws IOException {
+        if (spanColor != NO_COLOR)
+            putMarkup(SPAN_END);
+        spanColor = NO_COLOR;
+    }
+
+    /**
+     * @param rgb - A color, packed as RGB.
+     * @return - The color with 4 bits per channel, packed as 0xrgb.
+     */
+    private static int quantize(int rgb) {
+        return (quantizeChannel((rgb >> RED_SHIFT) & CHANNEL_MASK) << QUANT_RED_SHIFT)
+                | (quantizeChannel((rgb >> GREEN_SHIFT) & CHANNEL_MASK) << QUANT_GREEN_SHIFT)
+                | quantizeChannel(rgb & CHANNEL_MASK);
+    }
+
+    /**
+     * @param channel - A channel, in [0,255].
+     * @return - The closest hex digit of the channel, in [0,15].
+     */
+    private static int quantizeChannel(int channel) {
+        return (channel * QUANT_LEVELS + HALF_CHANNEL) / CHANNEL_MASK;
+    }
+}
@@ -0,0 +1,25 @@
+package ascii_art.output;
+
+/**
+ * Prints every row of the Asci-Image to the console as soon as it is ready.
+ */
+public class ConsoleAsciiRowOutput implements AsciiRowOutput {
+
+    /**
+     * Prints a row of the Asci-Image.
+     *
+     * @param row - The chars of the row.
+     */
+    @Override
+    public void outputRow(char[] row) {
+        System.out.println(row);
+    }
+
+    /**
+     * Flushes the console.
+     */
+    @Override
+    public void close() {
+        System.out.flush();
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Outputs of Asci-Images that are written row by row or through large buffers.
+ */
+package ascii_art.output;
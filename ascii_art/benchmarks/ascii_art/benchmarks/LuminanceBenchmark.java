@@ -0,0 +1,105 @@
+package ascii_art.benchmarks;
+
+import ascii_art.img_to_char.BufferedArgbImage;
+import ascii_art.img_to_char.SummedAreaTable;
+import image.Image;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of building the summed-area table of an image, which converts every pixel to grey once.
+ * The "color" benchmarks read the pixels as Color objects and the "argb" benchmarks read the same pixels
+ * from the packed array of an ArgbImage. The "decoded" pair uses a decoded image file (a BufferedImage of
+ * 3 bytes per pixel, like a decoded JPEG) - read pixel by pixel as Image.fromFile does, or copied once to a
+ * BufferedArgbImage as ImageFiles.open does. Run it with "-prof gc" to see the allocations per table
+ * (gc.alloc.rate.norm) - with the packed array only the table itself and one row of grey pixels are
+ * allocated. Note that for the synthetic image getPixel is inlined and the JIT may already remove the
+ * Color objects by escape analysis, so that pair differs only in time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LuminanceBenchmark {
+
+    // ============================= parameters =============================
+
+    @Param({"256", "1024", "4096"})
+    public int imageSize;
+
+    // =============================== fields ===============================
+
+    private Image colorImage;
+    private Image argbImage;
+    private Image decodedColorImage;
+    private Image decodedArgbImage;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Creates the images, all with the same pixels.
+     */
+    @Setup
+    public void setup() {
+        colorImage = new SyntheticImage(imageSize);
+        argbImage = new SyntheticArgbImage(imageSize);
+        BufferedImage decoded = new BufferedImage(imageSize, imageSize, BufferedImage.TYPE_3BYTE_BGR);
+        for (int y = 0; y < imageSize; y++)
+            for (int x = 0; x < imageSize; x++)
+                decoded.setRGB(x, y, SyntheticImage.rgbAt(x, y));
+        decodedColorImage = new Image() {
+            @Override
+            public Color getPixel(int x, int y) {
+                return new Color(decoded.getRGB(x, y));
+            }
+
+            @Override
+            public int getWidth() {
+                return decoded.getWidth();
+            }
+
+            @Override
+            public int getHeight() {
+                return decoded.getHeight();
+            }
+        };
+        decodedArgbImage = new BufferedArgbImage(decoded);
+    }
+
+    /**
+     * @return - The table of the image, read pixel by pixel as Color objects.
+     */
+    @Benchmark
+    public SummedAreaTable summedAreaTableColor() {
+        return new SummedAreaTable(colorImage);
+    }
+
+    /**
+     * @return - The table of the image, read from its packed ARGB array.
+     */
+    @Benchmark
+    public SummedAreaTable summedAreaTableArgb() {
+        return new SummedAreaTable(argbImage);
+    }
+
+    /**
+     * @return - The table of a decoded image, read pixel by pixel as Color objects.
+     */
+    @Benchmark
+    public SummedAreaTable summedAreaTableDecodedColor() {
+        return new SummedAreaTable(decodedColorImage);
+    }
+
+    /**
+     * @return - The table of a decoded image, read from its packed ARGB array.
+     */
+    @Benchmark
+    public SummedAreaTable summedAreaTableDecodedArgb() {
+        return new SummedAreaTable(decodedArgbImage);
+    }
+}
@@ -0,0 +1,86 @@
+package ascii_art.benchmarks;
+
+import ascii_art.img_to_char.BrightnessImgCharMatcher;
+import ascii_art.img_to_char.CharRenderer;
+import image.Image;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of BrightnessImgCharMatcher.chooseChars and of CharRenderer.getImg.
+ * The "cold" benchmark creates a new matcher on every call, so it includes building the summed-area table
+ * of the image, and the "warm" benchmark reuses one matcher, like a repeated render in the Shell.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatcherBenchmark {
+
+    // ========================== private constant ==========================
+
+    private static final String FONT_NAME = "Courier New";
+    private static final char FIRST_CHAR = ' ';
+    private static final int GLYPH_PIXELS = 16;
+
+    // ============================= parameters =============================
+
+    @Param({"256", "1024", "4096", "8192"})
+    public int imageSize;
+
+    @Param({"10", "40", "95"})
+    public int charSetSize;
+
+    @Param({"64", "256", "1024"})
+    public int charsInRow;
+
+    // =============================== fields ===============================
+
+    private Image image;
+    private Character[] charSet;
+    private BrightnessImgCharMatcher warmMatcher;
+    private int numCharsInRow;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Creates the image, the char-set and the warm matcher.
+     */
+    @Setup
+    public void setup() {
+        image = new SyntheticImage(imageSize);
+        charSet = new Character[charSetSize];
+        for (int i = 0; i < charSetSize; i++)
+            charSet[i] = (char) (FIRST_CHAR + i);
+        numCharsInRow = Math.min(charsInRow, imageSize); // at least one pixel per char.
+        warmMatcher = new BrightnessImgCharMatcher(image, FONT_NAME);
+        warmMatcher.chooseChars(numCharsInRow, charSet);
+    }
+
+    /**
+     * @return - An Asci-Image from a new matcher.
+     */
+    @Benchmark
+    public char[][] chooseCharsCold() {
+        return new BrightnessImgCharMatcher(image, FONT_NAME).chooseChars(numCharsInRow, charSet);
+    }
+
+    /**
+     * @return - An Asci-Image from a matcher that already rendered the image.
+     */
+    @Benchmark
+    public char[][] chooseCharsWarm() {
+        return warmMatcher.chooseChars(numCharsInRow, charSet);
+    }
+
+    /**
+     * @return - A single rendered char.
+     */
+    @Benchmark
+    public boolean[][] charRendererGetImg() {
+        return CharRenderer.getImg(charSet[charSetSize - 1], GLYPH_PIXELS, FONT_NAME);
+    }
+}
@@ -0,0 +1,103 @@
+package ascii_art.benchmarks;
+
+import ascii_art.output.BufferedConsoleAsciiOutput;
+import ascii_art.output.BufferedHtmlAsciiOutput;
+import ascii_output.ConsoleAsciiOutput;
+import ascii_output.HtmlAsciiOutput;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the AsciiOutput writers, the buffered ones against the ones of the course.
+ * The console writers print to a stream that drops everything, so only the formatting is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutputBenchmark {
+
+    // ========================== private constant ==========================
+
+    private static final String FONT_NAME = "Courier New";
+    private static final String TEMP_PREFIX = "ascii_bench";
+    private static final String TEMP_SUFFIX = ".html";
+    private static final String CHARS = "0123456789<>&@#";
+
+    // ============================= parameters =============================
+
+    @Param({"64", "256", "1024", "2000"})
+    public int charsInRow;
+
+    // =============================== fields ===============================
+
+    private char[][] chars;
+    private File file;
+    private PrintStream originalOut;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Creates the Asci-Image and the output file, and silences the console.
+     *
+     * @throws IOException - If the output file could not be created.
+     */
+    @Setup
+    public void setup() throws IOException {
+        chars = new char[charsInRow / 2][charsInRow];
+        for (int i = 0; i < chars.length; i++)
+            for (int j = 0; j < charsInRow; j++)
+                chars[i][j] = CHARS.charAt((i * charsInRow + j) % CHARS.length());
+        file = File.createTempFile(TEMP_PREFIX, TEMP_SUFFIX);
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Restores the console and deletes the output file.
+     */
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+        file.delete();
+    }
+
+    /**
+     * Writes the Asci-Image to the HTML file with the buffered writer.
+     */
+    @Benchmark
+    public void bufferedHtml() {
+        new BufferedHtmlAsciiOutput(file.getPath(), FONT_NAME).output(chars);
+    }
+
+    /**
+     * Writes the Asci-Image to the HTML file with the writer of the course.
+     */
+    @Benchmark
+    public void courseHtml() {
+        new HtmlAsciiOutput(file.getPath(), FONT_NAME).output(chars);
+    }
+
+    /**
+     * Prints the Asci-Image with the buffered writer.
+     */
+    @Benchmark
+    public void bufferedConsole() {
+        new BufferedConsoleAsciiOutput().output(chars);
+    }
+
+    /**
+     * Prints the Asci-Image with the writer of the course.
+     */
+    @Benchmark
+    public void courseConsole() {
+        new ConsoleAsciiOutput().output(chars);
+    }
+}
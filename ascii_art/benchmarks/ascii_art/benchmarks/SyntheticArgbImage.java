@@ -0,0 +1,29 @@
+package ascii_art.benchmarks;
+
+import ascii_art.img_to_char.ArgbImage;
+
+/**
+ * A SyntheticImage that also gives its packed pixels, so the matchers read it without creating a Color
+ * object for every pixel.
+ */
+public class SyntheticArgbImage extends SyntheticImage implements ArgbImage {
+
+    // =========================== public methods ===========================
+
+    /**
+     * Constructor.
+     *
+     * @param size - The width and the height of the image in pixels.
+     */
+    public SyntheticArgbImage(int size) {
+        super(size);
+    }
+
+    /**
+     * @return - The pixels of the image, row after row, packed as ARGB.
+     */
+    @Override
+    public int[] getArgb() {
+        return rgb;
+    }
+}
@@ -0,0 +1,67 @@
+package ascii_art.benchmarks;
+
+import image.Image;
+
+import java.awt.*;
+
+/**
+ * A square image whose pixels are computed once from their coordinates and kept packed as RGB ints,
+ * so images of any size can be benchmarked without image files.
+ */
+public class SyntheticImage implements Image {
+
+    // ========================== private constant ==========================
+
+    private static final double X_FREQUENCY = 0.05;
+    private static final double Y_FREQUENCY = 0.031;
+    private static final double HALF_CHANNEL = 127.5;
+    private static final int RED_SHIFT = 16;
+    private static final int GREEN_SHIFT = 8;
+
+    // =============================== fields ===============================
+
+    private final int size;
+    protected final int[] rgb;
+
+    // =========================== public methods ===========================
+
+    /**
+     * Constructor.
+     *
+     * @param size - The width and the height of the image in pixels.
+     */
+    public SyntheticImage(int size) {
+        this.size = size;
+        this.rgb = new int[size * size];
+        for (int y = 0; y < size; y++)
+            for (int x = 0; x < size; x++)
+                rgb[y * size + x] = rgbAt(x, y);
+    }
+
+    /**
+     * @param x - The x coordinate.
+     * @param y - The y coordinate.
+     * @return - The color of the pixel, packed as RGB.
+     */
+    public static int rgbAt(int x, int y) {
+        int red = (int) (HALF_CHANNEL + HALF_CHANNEL * Math.sin(x * X_FREQUENCY));
+        int green = (int) (HALF_CHANNEL + HALF_CHANNEL * Math.cos(y * Y_FREQUENCY));
+        int blue = (x ^ y) & 0xff;
+        return (red << RED_SHIFT) | (green << GREEN_SHIFT) | blue;
+    }
+
+    @Override
+    public Color getPixel(int x, int y) {
+        return new Color(rgb[y * size + x]);
+    }
+
+    @Override
+    public int getWidth() {
+        return size;
+    }
+
+    @Override
+    public int getHeight() {
+        return size;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * JMH benchmarks of the conversion of images to Asci-Images.
+ */
+package ascii_art.benchmarks;